@@ -0,0 +1,61 @@
+package com.example.demo1;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Загрузка файла списка: чтение, разбор и проверка строк, как в loadFromFile,
+ * но без потока JavaFX. Пачки студентов передаются в Blackhole вместо таблицы.
+ * Режим sequential — построчное чтение, parallel — разбор по диапазонам байтов.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class LoadBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+
+    @Param({"sequential", "parallel"})
+    public String mode;
+
+    private Path file;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        file = Rosters.file(rows);
+        System.setProperty("students.load", mode);
+    }
+
+    @Benchmark
+    public int load(Blackhole bh) throws Exception {
+        StudentFileLoader loader = new StudentFileLoader(file, null, null);
+        return loader.load(new StudentFileLoader.Sink() {
+            @Override
+            public void batch(List<Main.Student> batch) {
+                bh.consume(batch);
+            }
+
+            @Override
+            public void progress(long done, long total) {
+            }
+
+            @Override
+            public void error(String message) {
+                bh.consume(message);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+        });
+    }
+}
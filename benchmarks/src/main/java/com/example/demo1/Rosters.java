@@ -0,0 +1,88 @@
+package com.example.demo1;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Синтетические списки студентов для замеров, см. {@link StudentRosterGenerator}.
+ * Данные зависят только от размера и начального значения генератора, поэтому
+ * замеры разных версий кода выполняются на одинаковых входных данных.
+ * Файлы создаются один раз во временном каталоге и используются повторно.
+ */
+final class Rosters {
+
+    static final long SEED = 20240901L;
+    // Доля строк с ошибками (неверный формат или недопустимые символы)
+    static final double MALFORMED_SHARE = 0.01;
+
+    private Rosters() {
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * @param rows количество строк
+     * @return строки файла формата Фамилия;Имя;Отчество;Возраст;Город;Группа
+     */
+    static List<String> lines(int rows) {
+        List<String> lines = new ArrayList<>(rows);
+        new StudentRosterGenerator(SEED, MALFORMED_SHARE).lines(rows).forEach(lines::add);
+        return lines;
+    }
+
+    /**
+     * @param rows количество строк
+     * @return корректные студенты (без строк с ошибками)
+     */
+    static List<Main.Student> students(int rows) {
+        StudentRosterGenerator generator = new StudentRosterGenerator(SEED, 0);
+        List<Main.Student> students = new ArrayList<>(rows);
+        while (students.size() < rows) {
+            students.add(generator.nextStudent());
+        }
+        return students;
+    }
+
+    /**
+     * Возвращает файл списка заданного размера, создавая его при первом обращении
+     * @param rows количество строк
+     * @return путь к файлу во временном каталоге
+     */
+    static Path file(int rows) {
+        Path path = Path.of(System.getProperty("java.io.tmpdir"), "students-roster-" + rows + "-" + SEED + ".txt");
+        if (Files.exists(path)) {
+            return path;
+        }
+        try {
+            new StudentRosterGenerator(SEED, MALFORMED_SHARE).write(path, rows);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return path;
+    }
+
+    /**
+     * Возвращает сжатый gzip файл списка заданного размера, создавая его при первом обращении
+     * @param rows количество строк
+     * @return путь к файлу во временном каталоге; строки совпадают с {@link #file}
+     */
+    static Path gzipFile(int rows) {
+        Path text = file(rows);
+        Path path = StudentFileFormat.gzipPathFor(text);
+        if (Files.exists(path)) {
+            return path;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(text, StandardCharsets.UTF_8)) {
+            Path tmp = Files.createTempFile(path.getParent(), "students-bench", ".tmp");
+            StudentFileFormat.write(tmp, true, () -> reader.lines().iterator());
+            Files.move(tmp, path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return path;
+    }
+}
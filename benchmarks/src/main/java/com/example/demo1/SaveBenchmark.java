@@ -0,0 +1,70 @@
+package com.example.demo1;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сохранение списка: форматирование строк через String.format (saveToFile)
+ * против конкатенации {@link StudentJournal#format}, а также полная запись
+ * файла, как при сжатии журнала.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class SaveBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+
+    private List<Main.Student> students;
+    private Path target;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        students = Rosters.students(rows);
+        target = Files.createTempFile("students-save", ".txt");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(target);
+    }
+
+    @Benchmark
+    public void stringFormat(Blackhole bh) {
+        for (Main.Student s : students) {
+            bh.consume(String.format("%s;%s;%s;%d;%s;%s",
+                    s.getSurname(), s.getName(), s.getPatronymic(),
+                    s.getAge(), s.getCity(), s.getGroup()));
+        }
+    }
+
+    @Benchmark
+    public void concatFormat(Blackhole bh) {
+        for (Main.Student s : students) {
+            bh.consume(StudentJournal.format(s));
+        }
+    }
+
+    @Benchmark
+    public long writeFile() throws IOException {
+        try (BufferedWriter out = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            for (Main.Student s : students) {
+                out.write(StudentJournal.format(s));
+                out.newLine();
+            }
+        }
+        return Files.size(target);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo1;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Поиск по фамилии и группе, как в onSearch: индекс {@link StudentSearchIndex}
+ * против линейного фильтра с toLowerCase для каждой строки.
+ * Условие фильтра проверяется по всему списку, как это делает FilteredList.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+
+    // Запрос вида "фамилия|группа"; пустая часть означает отсутствие условия
+    @Param({"иванов|", "|ивт-2", "петрова|пи-2", "ов|"})
+    public String query;
+
+    private ObservableList<Main.Student> students;
+    private StudentSearchIndex index;
+    private String surname;
+    private String group;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        students = FXCollections.observableArrayList(Rosters.students(rows));
+        index = new StudentSearchIndex(students);
+        int bar = query.indexOf('|');
+        surname = query.substring(0, bar);
+        group = query.substring(bar + 1);
+    }
+
+    @Benchmark
+    public List<Main.Student> indexSearch() {
+        return index.search(surname, group);
+    }
+
+    @Benchmark
+    public int indexFilter() {
+        Predicate<Main.Student> predicate = index.filter(surname, group);
+        int matched = 0;
+        for (Main.Student s : students) {
+            if (predicate.test(s)) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    @Benchmark
+    public List<Main.Student> linearFilter() {
+        return students.stream()
+                .filter(s -> s.getSurname().toLowerCase().contains(surname)
+                        && s.getGroup().toLowerCase().contains(group))
+                .collect(Collectors.toList());
+    }
+}
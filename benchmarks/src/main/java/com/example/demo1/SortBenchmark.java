@@ -0,0 +1,75 @@
+package com.example.demo1;
+
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
+import org.openjdk.jmh.annotations.*;
+
+import java.text.Collator;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сортировка таблицы по фамилии, имени и отчеству, как после щелчков по заголовкам:
+ * сравнение строк, {@link Collator} на каждое сравнение и ключи сортировки
+ * {@link StudentSortKeys} (ранжирование параллельной сортировкой и сортировка SortedList).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class SortBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int rows;
+
+    private ObservableList<Main.Student> students;
+    private SortedList<Main.Student> sorted;
+    private StudentSortKeys sortKeys;
+    private Comparator<Main.Student> collatorComparator;
+    private final List<StudentSortKeys.Order> orders = List.of(
+            new StudentSortKeys.Order(StudentSortKeys.Field.SURNAME, true),
+            new StudentSortKeys.Order(StudentSortKeys.Field.NAME, true),
+            new StudentSortKeys.Order(StudentSortKeys.Field.PATRONYMIC, true));
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        students = FXCollections.observableArrayList(Rosters.students(rows));
+        sorted = new SortedList<>(students);
+        Locale locale = Locale.forLanguageTag("ru-RU");
+        sortKeys = new StudentSortKeys(students, locale);
+        Collator collator = Collator.getInstance(locale);
+        collatorComparator = Comparator.comparing(Main.Student::getSurname, collator)
+                .thenComparing(Main.Student::getName, collator)
+                .thenComparing(Main.Student::getPatronymic, collator);
+    }
+
+    @Setup(Level.Invocation)
+    public void unsort() {
+        sorted.setComparator(null);
+    }
+
+    @Benchmark
+    public SortedList<Main.Student> stringCompare() {
+        sorted.setComparator(Comparator.comparing(Main.Student::getSurname)
+                .thenComparing(Main.Student::getName)
+                .thenComparing(Main.Student::getPatronymic));
+        return sorted;
+    }
+
+    @Benchmark
+    public SortedList<Main.Student> collatorCompare() {
+        sorted.setComparator(collatorComparator);
+        return sorted;
+    }
+
+    @Benchmark
+    public SortedList<Main.Student> sortKeys() {
+        sorted.setComparator(sortKeys.comparator(orders));
+        return sorted;
+    }
+}
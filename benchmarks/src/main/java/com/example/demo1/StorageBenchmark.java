@@ -0,0 +1,79 @@
+package com.example.demo1;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Загрузка и сохранение файла списка в текстовом и сжатом gzip формате
+ * ({@link StudentFileFormat}). Загрузка идет построчно в обоих режимах,
+ * чтобы разница показывала цену распаковки против объема чтения с диска.
+ * Размеры файлов печатаются при подготовке замера.
+ * Для замера с холодным кэшем файлов ОС его нужно сбрасывать между итерациями.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "-Dstudents.load=sequential"})
+@State(Scope.Benchmark)
+public class StorageBenchmark {
+
+    @Param({"1000000", "5000000"})
+    public int rows;
+
+    @Param({"text", "gzip"})
+    public String storage;
+
+    private Path file;
+    private Path saveTarget;
+    private List<String> lines;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = storage.equals("gzip") ? Rosters.gzipFile(rows) : Rosters.file(rows);
+        saveTarget = Files.createTempFile("students-bench-save", ".tmp");
+        lines = Rosters.lines(rows);
+        System.out.println(file.getFileName() + ": " + Files.size(file) + " байт");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(saveTarget);
+    }
+
+    @Benchmark
+    public int load(Blackhole bh) throws Exception {
+        StudentFileLoader loader = new StudentFileLoader(file, null, null);
+        return loader.load(new StudentFileLoader.Sink() {
+            @Override
+            public void batch(List<Main.Student> batch) {
+                bh.consume(batch);
+            }
+
+            @Override
+            public void progress(long done, long total) {
+            }
+
+            @Override
+            public void error(String message) {
+                bh.consume(message);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+        });
+    }
+
+    @Benchmark
+    public long[] save() throws IOException {
+        return StudentFileFormat.write(saveTarget, storage.equals("gzip"), lines);
+    }
+}
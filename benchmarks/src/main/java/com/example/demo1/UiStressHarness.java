@@ -0,0 +1,387 @@
+package com.example.demo1;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.scene.control.*;
+import javafx.scene.layout.GridPane;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Проверка отзывчивости интерфейса на большом списке: настоящая сцена {@link Main}
+ * запускается в JavaFX без экрана (Monocle Headless), сценарий нажимает кнопки
+ * и заполняет диалоги как пользователь — загрузка, поиск, сброс, поиск при вводе,
+ * добавление, правка и удаление, — а таймер анимации измеряет интервалы между
+ * импульсами (кадрами) JavaFX. Пока поток JavaFX занят, импульсы не выполняются,
+ * поэтому длинный интервал — это зависание интерфейса, видимое пользователю.
+ *
+ * Процесс завершается с кодом 1, если наибольший интервал или 99-й процентиль
+ * превышают пороги либо шаг сценария не завершился вовремя; так проверку
+ * можно включить в сборку как тест производительности. Запуск:
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.example.demo1.UiStressHarness \
+ *      --rows 1000000 --rounds 3 --max-gap-ms 500 --p99-ms 100
+ * </pre>
+ * Список создается {@link StudentRosterGenerator} во временном каталоге
+ * и удаляется после проверки.
+ */
+public final class UiStressHarness {
+
+    // Интервал, начиная с которого импульс считается зависанием
+    private static final long STALL_NANOS = 100_000_000;
+    private static final long STEP_TIMEOUT_SECONDS = 60;
+    private static final long LOAD_TIMEOUT_SECONDS = 600;
+
+    private final LatencyHistogram gaps = new LatencyHistogram();
+    // Наибольший интервал и число зависаний по шагам сценария, изменяются в потоке JavaFX
+    private final Map<String, long[]> stepGaps = new LinkedHashMap<>();
+    private final List<String> failures = new ArrayList<>();
+    private volatile String currentStep = "Запуск";
+    private long stalls;
+    private long stallNanos;
+
+    private Main main;
+    private Scene scene;
+    private final CountDownLatch loaded = new CountDownLatch(1);
+
+    private UiStressHarness() {
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    public static void main(String[] args) throws Exception {
+        int rows = 1_000_000;
+        int rounds = 3;
+        long seed = StudentRosterGenerator.DEFAULT_SEED;
+        double malformedShare = StudentRosterGenerator.DEFAULT_MALFORMED_SHARE;
+        long maxGapMillis = 500;
+        long p99Millis = 100;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            switch (args[i]) {
+                case "--rows" -> rows = Integer.parseInt(args[i + 1].replace("_", ""));
+                case "--rounds" -> rounds = Integer.parseInt(args[i + 1]);
+                case "--seed" -> seed = Long.parseLong(args[i + 1]);
+                case "--malformed" -> malformedShare = Double.parseDouble(args[i + 1]);
+                case "--max-gap-ms" -> maxGapMillis = Long.parseLong(args[i + 1]);
+                case "--p99-ms" -> p99Millis = Long.parseLong(args[i + 1]);
+                default -> throw new IllegalArgumentException("Неизвестный параметр: " + args[i]);
+            }
+        }
+
+        Path dir = Files.createTempDirectory("students-stress");
+        Path file = dir.resolve("students.txt");
+        new StudentRosterGenerator(seed, malformedShare).write(file, rows);
+        System.out.printf("Список: %s, строк %d%n", file, rows);
+
+        // Монокль без экрана и программная отрисовка; задаются до запуска JavaFX
+        System.setProperty("glass.platform", "Monocle");
+        System.setProperty("monocle.platform", "Headless");
+        System.setProperty("prism.order", "sw");
+        System.setProperty("students.file", file.toString());
+
+        UiStressHarness harness = new UiStressHarness();
+        boolean passed;
+        try {
+            harness.launch();
+            harness.runScript(rounds, seed);
+            passed = harness.report(maxGapMillis * 1_000_000, p99Millis * 1_000_000);
+        } finally {
+            harness.shutdown();
+            try (Stream<Path> files = Files.walk(dir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+        }
+        System.exit(passed ? 0 : 1);
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Запускает JavaFX, открывает главное окно и таймер измерения импульсов
+     */
+    private void launch() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        Platform.startup(started::countDown);
+        started.await();
+        fx(() -> {
+            main = new Main();
+            Stage stage = new Stage();
+            main.start(stage);
+            scene = stage.getScene();
+            // Кнопка отмены доступна только во время загрузки: ее выключение означает конец загрузки
+            Button cancelLoad = lookup("#btnCancelLoad");
+            cancelLoad.disableProperty().addListener((obs, oldVal, newVal) -> {
+                if (newVal && !oldVal) {
+                    loaded.countDown();
+                }
+            });
+            new AnimationTimer() {
+                private long last;
+
+                @Override
+                public void handle(long now) {
+                    if (last != 0) {
+                        recordGap(now - last);
+                    }
+                    last = now;
+                }
+            }.start();
+            return null;
+        });
+    }
+
+    private void recordGap(long gap) {
+        gaps.record(gap);
+        long[] step = stepGaps.computeIfAbsent(currentStep, k -> new long[2]);
+        step[0] = Math.max(step[0], gap);
+        if (gap >= STALL_NANOS) {
+            step[1]++;
+            stalls++;
+            stallNanos += gap;
+        }
+    }
+
+    private void shutdown() throws Exception {
+        if (main != null) {
+            fx(() -> {
+                main.stop();
+                return null;
+            });
+        }
+        Platform.exit();
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Сценарий: загрузка, затем несколько кругов поиска и изменений списка
+     */
+    private void runScript(int rounds, long seed) throws Exception {
+        step("Загрузка", () -> loaded.await(LOAD_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        StudentRosterGenerator generator = new StudentRosterGenerator(seed + 1, 0);
+        String[][] queries = {
+                {"Иванов", "", "", "", ""},
+                {"", "ИВТ-2", "", "", ""},
+                {"", "", "Москва", "18", "20"},
+                {"Петрова", "ПИ", "", "", ""}
+        };
+        for (int i = 0; i < rounds; i++) {
+            int round = i;
+            String[] query = queries[round % queries.length];
+            step("Поиск", () -> search(query));
+            step("Сброс", () -> {
+                setLog();
+                fx(() -> {
+                    this.<Button>lookup("#btnReset").fire();
+                    return null;
+                });
+                return awaitLog("Поиск сброшен");
+            });
+            step("Поиск при вводе", () -> typeSurname(generator.nextFields()[0]));
+            step("Сброс", () -> {
+                fx(() -> {
+                    this.<Button>lookup("#btnReset").fire();
+                    return null;
+                });
+                return true;
+            });
+            step("Добавление", () -> add(generator.nextFields()));
+            step("Правка", () -> edit(round, generator.nextFields()[0]));
+            step("Удаление", () -> delete(round));
+        }
+        currentStep = "Ожидание";
+        Thread.sleep(500);
+    }
+
+    private boolean search(String[] query) throws Exception {
+        setLog();
+        fx(() -> {
+            this.<TextField>lookup("#tfSearchSurname").setText(query[0]);
+            this.<TextField>lookup("#tfSearchGroup").setText(query[1]);
+            this.<TextField>lookup("#tfSearchCity").setText(query[2]);
+            this.<TextField>lookup("#tfSearchAgeFrom").setText(query[3]);
+            this.<TextField>lookup("#tfSearchAgeTo").setText(query[4]);
+            this.<Button>lookup("#btnSearch").fire();
+            return null;
+        });
+        return awaitLog("Найдено студентов", "Студенты не найдены");
+    }
+
+    /**
+     * Набирает фамилию по букве с паузами, как пользователь; поиск выполняется при вводе
+     */
+    private boolean typeSurname(String surname) throws Exception {
+        for (int i = 1; i <= surname.length(); i++) {
+            String text = surname.substring(0, i);
+            setLog();
+            fx(() -> {
+                this.<TextField>lookup("#tfSearchSurname").setText(text);
+                return null;
+            });
+            Thread.sleep(80);
+        }
+        return awaitLog("Найдено студентов", "Студенты не найдены");
+    }
+
+    private boolean add(String[] fields) throws Exception {
+        int before = fx(() -> this.<TableView<?>>lookup("#tableView").getItems().size());
+        Platform.runLater(() -> this.<Button>lookup("#btnAdd").fire());
+        fillDialog(fields);
+        return await(() -> this.<TableView<?>>lookup("#tableView").getItems().size() == before + 1);
+    }
+
+    private boolean edit(int round, String surname) throws Exception {
+        Main.Student target = fx(() -> {
+            TableView<Main.Student> table = lookup("#tableView");
+            table.getSelectionModel().select(round);
+            return table.getSelectionModel().getSelectedItem();
+        });
+        Platform.runLater(() -> this.<Button>lookup("#btnEdit").fire());
+        fillDialog(new String[]{surname, null, null, null, null, null});
+        return await(() -> target.getSurname().equals(surname));
+    }
+
+    private boolean delete(int round) throws Exception {
+        int before = fx(() -> {
+            TableView<?> table = lookup("#tableView");
+            table.getSelectionModel().select(table.getItems().size() / 2 + round);
+            this.<Button>lookup("#btnDelete").fire();
+            return table.getItems().size();
+        });
+        return await(() -> this.<TableView<?>>lookup("#tableView").getItems().size() == before - 1);
+    }
+
+    /**
+     * Ждет диалог данных студента, заполняет поля и нажимает OK
+     * @param fields фамилия, имя, отчество, возраст, город, группа; null — не изменять поле
+     */
+    private void fillDialog(String[] fields) throws Exception {
+        if (!await(() -> dialogPane() != null)) {
+            throw new TimeoutException("Диалог данных студента не открылся");
+        }
+        fx(() -> {
+            DialogPane pane = dialogPane();
+            // Поля диалога по порядку: имя, фамилия, отчество, возраст, город, группа
+            List<TextField> inputs = new ArrayList<>();
+            for (Node node : ((GridPane) pane.getContent()).getChildren()) {
+                if (node instanceof TextField field) {
+                    inputs.add(field);
+                }
+            }
+            String[] values = {fields[1], fields[0], fields[2], fields[3], fields[4], fields[5]};
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] != null) {
+                    inputs.get(i).setText(values[i]);
+                }
+            }
+            ((Button) pane.lookupButton(ButtonType.OK)).fire();
+            return null;
+        });
+    }
+
+    private static DialogPane dialogPane() {
+        for (Window window : Window.getWindows()) {
+            if (window.isShowing() && window.getScene() != null && window.getScene().getRoot() instanceof DialogPane pane) {
+                return pane;
+            }
+        }
+        return null;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Выполняет шаг сценария и запоминает его длительность
+     */
+    private void step(String name, Callable<Boolean> action) throws Exception {
+        currentStep = name;
+        long started = System.nanoTime();
+        boolean done = action.call();
+        long millis = (System.nanoTime() - started) / 1_000_000;
+        System.out.printf("  %-16s %6d мс%s%n", name, millis, done ? "" : "  (не завершен)");
+        if (!done) {
+            failures.add("Шаг \"" + name + "\" не завершился");
+        }
+    }
+
+    private void setLog() throws Exception {
+        fx(() -> {
+            this.<Label>lookup("#lblLog").setText("");
+            return null;
+        });
+    }
+
+    private boolean awaitLog(String... prefixes) throws Exception {
+        return await(() -> {
+            String text = this.<Label>lookup("#lblLog").getText();
+            for (String prefix : prefixes) {
+                if (text.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Проверяет условие в потоке JavaFX, пока оно не выполнится или не истечет время шага
+     */
+    private boolean await(Supplier<Boolean> condition) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(STEP_TIMEOUT_SECONDS);
+        while (System.nanoTime() < deadline) {
+            if (fx(condition::get)) {
+                return true;
+            }
+            Thread.sleep(5);
+        }
+        return false;
+    }
+
+    /**
+     * Выполняет действие в потоке JavaFX и ждет результат
+     */
+    private static <T> T fx(Callable<T> action) throws Exception {
+        FutureTask<T> task = new FutureTask<>(action);
+        Platform.runLater(task);
+        try {
+            return task.get(STEP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends Node> T lookup(String selector) {
+        return (T) scene.lookup(selector);
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Печатает интервалы импульсов и сравнивает их с порогами
+     * @return true, если пороги не превышены и все шаги завершились
+     */
+    private boolean report(long maxGapNanos, long p99Nanos) throws Exception {
+        fx(() -> {
+            System.out.printf("Импульсов: %d, интервал p50 %.1f мс, p99 %.1f мс, p99.9 %.1f мс, наибольший %.1f мс%n",
+                    gaps.count(), gaps.percentile(50) / 1e6, gaps.percentile(99) / 1e6,
+                    gaps.percentile(99.9) / 1e6, gaps.max() / 1e6);
+            System.out.printf("Зависаний от %d мс: %d, всего %.1f мс%n", STALL_NANOS / 1_000_000, stalls, stallNanos / 1e6);
+            stepGaps.forEach((name, step) -> System.out.printf("  %-16s наибольший интервал %6.1f мс, зависаний %d%n",
+                    name, step[0] / 1e6, step[1]));
+            if (gaps.max() > maxGapNanos) {
+                failures.add(String.format("Наибольший интервал %.1f мс превышает %d мс", gaps.max() / 1e6, maxGapNanos / 1_000_000));
+            }
+            if (gaps.percentile(99) > p99Nanos) {
+                failures.add(String.format("Интервал p99 %.1f мс превышает %d мс", gaps.percentile(99) / 1e6, p99Nanos / 1_000_000));
+            }
+            return null;
+        });
+        failures.forEach(failure -> System.out.println("ОШИБКА: " + failure));
+        System.out.println(failures.isEmpty() ? "Проверка пройдена" : "Проверка не пройдена");
+        return failures.isEmpty();
+    }
+}
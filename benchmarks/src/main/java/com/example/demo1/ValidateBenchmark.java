@@ -0,0 +1,77 @@
+package com.example.demo1;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Проверка полей студента: {@link StudentValidator} против прежней проверки
+ * регулярными выражениями и Integer.parseInt (validateStudentData до замены).
+ * Поля строк разделены заранее, замеряется только проверка.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+@State(Scope.Benchmark)
+public class ValidateBenchmark {
+
+    private static final Pattern NAME = Pattern.compile("[а-яА-ЯёЁa-zA-Z\\s-]+");
+    private static final Pattern GROUP = Pattern.compile("[а-яА-ЯёЁa-zA-Z0-9-]+");
+
+    @Param({"10000", "1000000", "10000000"})
+    public int rows;
+
+    private String[][] fields;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<String> lines = Rosters.lines(rows);
+        fields = new String[lines.size()][];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = lines.get(i).split(";");
+        }
+    }
+
+    @Benchmark
+    public int validator() {
+        int valid = 0;
+        for (String[] p : fields) {
+            if (p.length == 6 && StudentValidator.validate(p[1], p[0], p[2], p[3], p[4], p[5]) == null) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    @Benchmark
+    public int regex(Blackhole bh) {
+        int valid = 0;
+        for (String[] p : fields) {
+            if (p.length == 6 && regexValidate(p[1], p[0], p[2], p[3], p[4], p[5], bh)) {
+                valid++;
+            }
+        }
+        return valid;
+    }
+
+    private static boolean regexValidate(String name, String surname, String patronymic,
+                                         String age, String city, String group, Blackhole bh) {
+        if (!NAME.matcher(name).matches() || !NAME.matcher(surname).matches()
+                || !NAME.matcher(patronymic).matches() || !NAME.matcher(city).matches()
+                || !GROUP.matcher(group).matches()) {
+            return false;
+        }
+        try {
+            int value = Integer.parseInt(age);
+            return value >= StudentValidator.MIN_AGE && value <= StudentValidator.MAX_AGE;
+        } catch (NumberFormatException e) {
+            bh.consume(e);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.demo1;
+
+import java.util.*;
+
+/**
+ * BK-дерево ключей для поиска по расстоянию Левенштейна.
+ * Каждый потомок узла хранится под номером, равным расстоянию от его ключа
+ * до ключа узла. По неравенству треугольника при поиске с допуском k от узла
+ * на расстоянии d достаточно спуститься в потомков с номерами d-k..d+k,
+ * поэтому поиск с допуском 1–2 проверяет малую часть ключей.
+ *
+ * Ключ хранится с количеством записей, добавивших его; ключ без записей
+ * остается узлом дерева, но не попадает в результат. Когда таких узлов
+ * становится больше, чем живых, дерево перестраивается.
+ * Синхронизацию обеспечивает вызывающий код.
+ */
+final class BkTree {
+
+    // Наименьшее количество пустых узлов, при котором дерево перестраивается
+    private static final int COMPACT_THRESHOLD = 1024;
+
+    /**
+     * Найденный ключ и его расстояние до запроса
+     */
+    record Match(String key, int distance) {
+    }
+
+    private static final class Node {
+        final String key;
+        int count;
+        // Потомки по расстоянию до ключа узла; индекс 0 не используется
+        Node[] children;
+
+        Node(String key) {
+            this.key = key;
+        }
+    }
+
+    private Node root;
+    private final Map<String, Node> nodes = new HashMap<>();
+    private int empty;
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Добавляет ключ или увеличивает количество его записей
+     * @return экземпляр ключа, хранящийся в дереве; одинаковые ключи записей разделяют одну строку
+     */
+    String add(String key) {
+        Node node = nodes.get(key);
+        if (node == null) {
+            node = new Node(key);
+            nodes.put(key, node);
+            insert(node);
+        } else if (node.count == 0) {
+            empty--;
+        }
+        node.count++;
+        return node.key;
+    }
+
+    /**
+     * Уменьшает количество записей ключа
+     */
+    void remove(String key) {
+        Node node = nodes.get(key);
+        if (node == null || node.count == 0) {
+            return;
+        }
+        if (--node.count == 0 && ++empty > COMPACT_THRESHOLD && empty > nodes.size() - empty) {
+            compact();
+        }
+    }
+
+    void clear() {
+        root = null;
+        nodes.clear();
+        empty = 0;
+    }
+
+    /** @return количество ключей, у которых есть записи */
+    int size() {
+        return nodes.size() - empty;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Находит ключи на расстоянии не больше заданного
+     * @param query ключ запроса
+     * @param maxDistance допустимое расстояние редактирования
+     * @return найденные ключи по возрастанию расстояния, при равном расстоянии — по алфавиту
+     */
+    List<Match> search(String query, int maxDistance) {
+        List<Match> result = new ArrayList<>();
+        if (root == null) {
+            return result;
+        }
+        ArrayDeque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int d = distance(query, node.key);
+            if (d <= maxDistance && node.count > 0) {
+                result.add(new Match(node.key, d));
+            }
+            if (node.children != null) {
+                int to = Math.min(d + maxDistance, node.children.length - 1);
+                for (int i = Math.max(1, d - maxDistance); i <= to; i++) {
+                    if (node.children[i] != null) {
+                        pending.push(node.children[i]);
+                    }
+                }
+            }
+        }
+        result.sort(Comparator.comparingInt(Match::distance).thenComparing(Match::key));
+        return result;
+    }
+
+    /**
+     * Проверяет, что строки отличаются не больше чем на заданное расстояние
+     */
+    static boolean within(String a, String b, int maxDistance) {
+        return Math.abs(a.length() - b.length()) <= maxDistance && distance(a, b) <= maxDistance;
+    }
+
+    /**
+     * Расстояние Левенштейна: наименьшее количество вставок, удалений и замен символов
+     */
+    static int distance(String a, String b) {
+        if (a.length() < b.length()) {
+            String t = a;
+            a = b;
+            b = t;
+        }
+        int[] prev = new int[b.length() + 1];
+        int[] cur = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            prev[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            cur[0] = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                cur[j] = Math.min(Math.min(cur[j - 1] + 1, prev[j] + 1), prev[j - 1] + cost);
+            }
+            int[] t = prev;
+            prev = cur;
+            cur = t;
+        }
+        return prev[b.length()];
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    private void insert(Node node) {
+        if (root == null) {
+            root = node;
+            return;
+        }
+        Node parent = root;
+        while (true) {
+            int d = distance(node.key, parent.key);
+            if (parent.children == null || parent.children.length <= d) {
+                parent.children = parent.children == null
+                        ? new Node[d + 1]
+                        : Arrays.copyOf(parent.children, d + 1);
+            }
+            Node child = parent.children[d];
+            if (child == null) {
+                parent.children[d] = node;
+                return;
+            }
+            parent = child;
+        }
+    }
+
+    /**
+     * Перестраивает дерево только из ключей, у которых есть записи
+     */
+    private void compact() {
+        List<Node> live = new ArrayList<>(nodes.size() - empty);
+        for (Node node : nodes.values()) {
+            if (node.count > 0) {
+                live.add(node);
+            }
+        }
+        clear();
+        for (Node node : live) {
+            Node copy = new Node(node.key);
+            copy.count = node.count;
+            nodes.put(copy.key, copy);
+            insert(copy);
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.example.demo1;
+
+import java.util.Arrays;
+
+/**
+ * Сжатое множество неотрицательных целых (идентификаторов записей индекса).
+ * Значения делятся на блоки по старшим 16 битам; блок с небольшим числом
+ * значений хранится отсортированным массивом char (2 байта на значение),
+ * плотный блок — битовой картой на 65536 бит (8 КБ). Блок переходит из одного
+ * вида в другой при {@link #ARRAY_MAX} значениях, поэтому редкие значения поля
+ * занимают память по числу записей, а частые — не больше бита на запись.
+ * Пересечение и объединение выполняются поблочно.
+ */
+final class CompressedBitmap {
+
+    // Наибольшее число значений блока в виде массива; больше — битовая карта
+    static final int ARRAY_MAX = 4096;
+
+    // Старшие 16 бит значений блоков по возрастанию
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    /**
+     * Добавляет значение
+     */
+    void add(int value) {
+        char high = (char) (value >>> 16);
+        int i = find(high);
+        if (i < 0) {
+            i = -i - 1;
+            insertContainer(i, high, new ArrayContainer());
+        }
+        containers[i] = containers[i].add((char) value);
+    }
+
+    /**
+     * Удаляет значение, если оно есть
+     */
+    void remove(int value) {
+        int i = find((char) (value >>> 16));
+        if (i < 0) {
+            return;
+        }
+        Container c = containers[i].remove((char) value);
+        if (c.cardinality() == 0) {
+            System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+            System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+            containers[--size] = null;
+        } else {
+            containers[i] = c;
+        }
+    }
+
+    /** @return true, если множество пусто */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** @return количество значений */
+    int cardinality() {
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            n += containers[i].cardinality();
+        }
+        return n;
+    }
+
+    /**
+     * @return значения по возрастанию
+     */
+    int[] toArray() {
+        int[] out = new int[cardinality()];
+        int pos = 0;
+        for (int i = 0; i < size; i++) {
+            pos = containers[i].fill(out, pos, keys[i] << 16);
+        }
+        return out;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * @return новое множество — пересечение a и b
+     */
+    static CompressedBitmap and(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0, j = 0;
+        while (i < a.size && j < b.size) {
+            if (a.keys[i] < b.keys[j]) i++;
+            else if (a.keys[i] > b.keys[j]) j++;
+            else {
+                Container c = a.containers[i].and(b.containers[j]);
+                if (c.cardinality() > 0) {
+                    result.append(a.keys[i], c);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return новое множество — объединение a и b
+     */
+    static CompressedBitmap or(CompressedBitmap a, CompressedBitmap b) {
+        CompressedBitmap result = new CompressedBitmap();
+        int i = 0, j = 0;
+        while (i < a.size || j < b.size) {
+            if (j == b.size || (i < a.size && a.keys[i] < b.keys[j])) {
+                result.append(a.keys[i], a.containers[i].copy());
+                i++;
+            } else if (i == a.size || a.keys[i] > b.keys[j]) {
+                result.append(b.keys[j], b.containers[j].copy());
+                j++;
+            } else {
+                result.append(a.keys[i], a.containers[i].or(b.containers[j]));
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    private int find(char high) {
+        // Значения обычно добавляются по возрастанию, тогда нужный блок последний
+        if (size > 0 && keys[size - 1] == high) {
+            return size - 1;
+        }
+        return Arrays.binarySearch(keys, 0, size, high);
+    }
+
+    private void insertContainer(int i, char high, Container c) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(containers, i, containers, i + 1, size - i);
+        keys[i] = high;
+        containers[i] = c;
+        size++;
+    }
+
+    private void append(char high, Container c) {
+        insertContainer(size, high, c);
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Блок из 65536 возможных значений младших 16 бит.
+     * Изменяющие методы возвращают блок, которым нужно заменить текущий
+     * (при переходе между видами это новый объект).
+     */
+    private abstract static class Container {
+        abstract Container add(char value);
+
+        abstract Container remove(char value);
+
+        abstract boolean contains(char value);
+
+        abstract int cardinality();
+
+        abstract Container and(Container other);
+
+        abstract Container or(Container other);
+
+        abstract Container copy();
+
+        /** Записывает значения блока, дополненные старшими битами, начиная с pos */
+        abstract int fill(int[] out, int pos, int high);
+    }
+
+    /**
+     * Блок в виде отсортированного массива
+     */
+    private static final class ArrayContainer extends Container {
+        char[] values;
+        int size;
+
+        ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        ArrayContainer(char[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        Container add(char value) {
+            int pos = size > 0 && values[size - 1] < value ? -size - 1 : Arrays.binarySearch(values, 0, size, value);
+            if (pos >= 0) {
+                return this;
+            }
+            if (size == ARRAY_MAX) {
+                return toBitmap().add(value);
+            }
+            pos = -pos - 1;
+            if (size == values.length) {
+                values = Arrays.copyOf(values, Math.min(size * 2, ARRAY_MAX));
+            }
+            System.arraycopy(values, pos, values, pos + 1, size - pos);
+            values[pos] = value;
+            size++;
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            int pos = Arrays.binarySearch(values, 0, size, value);
+            if (pos >= 0) {
+                System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+                size--;
+            }
+            return this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, size, value) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return size;
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] out = new char[size];
+            int n = 0;
+            if (other instanceof ArrayContainer b) {
+                int i = 0, j = 0;
+                while (i < size && j < b.size) {
+                    if (values[i] < b.values[j]) i++;
+                    else if (values[i] > b.values[j]) j++;
+                    else {
+                        out[n++] = values[i];
+                        i++;
+                        j++;
+                    }
+                }
+            } else {
+                for (int i = 0; i < size; i++) {
+                    if (other.contains(values[i])) {
+                        out[n++] = values[i];
+                    }
+                }
+            }
+            return new ArrayContainer(out, n);
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer) {
+                return other.or(this);
+            }
+            ArrayContainer b = (ArrayContainer) other;
+            char[] out = new char[size + b.size];
+            int n = 0, i = 0, j = 0;
+            while (i < size || j < b.size) {
+                if (j == b.size || (i < size && values[i] < b.values[j])) out[n++] = values[i++];
+                else if (i == size || values[i] > b.values[j]) out[n++] = b.values[j++];
+                else {
+                    out[n++] = values[i++];
+                    j++;
+                }
+            }
+            ArrayContainer merged = new ArrayContainer(out, n);
+            return n > ARRAY_MAX ? merged.toBitmap() : merged;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, Math.max(size, 1)), size);
+        }
+
+        @Override
+        int fill(int[] out, int pos, int high) {
+            for (int i = 0; i < size; i++) {
+                out[pos++] = high | values[i];
+            }
+            return pos;
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < size; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    /**
+     * Блок в виде битовой карты
+     */
+    private static final class BitmapContainer extends Container {
+        final long[] words = new long[1024];
+        int cardinality;
+
+        @Override
+        Container add(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) == 0) {
+                words[value >>> 6] |= bit;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char value) {
+            long bit = 1L << value;
+            if ((words[value >>> 6] & bit) != 0) {
+                words[value >>> 6] &= ~bit;
+                cardinality--;
+            }
+            return cardinality <= ARRAY_MAX ? toArrayContainer() : this;
+        }
+
+        @Override
+        boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            BitmapContainer b = (BitmapContainer) other;
+            BitmapContainer out = new BitmapContainer();
+            for (int i = 0; i < words.length; i++) {
+                out.words[i] = words[i] & b.words[i];
+                out.cardinality += Long.bitCount(out.words[i]);
+            }
+            return out.cardinality <= ARRAY_MAX ? out.toArrayContainer() : out;
+        }
+
+        @Override
+        Container or(Container other) {
+            BitmapContainer out = (BitmapContainer) copy();
+            if (other instanceof ArrayContainer a) {
+                for (int i = 0; i < a.size; i++) {
+                    out.add(a.values[i]);
+                }
+            } else {
+                BitmapContainer b = (BitmapContainer) other;
+                out.cardinality = 0;
+                for (int i = 0; i < words.length; i++) {
+                    out.words[i] |= b.words[i];
+                    out.cardinality += Long.bitCount(out.words[i]);
+                }
+            }
+            return out;
+        }
+
+        @Override
+        Container copy() {
+            BitmapContainer out = new BitmapContainer();
+            System.arraycopy(words, 0, out.words, 0, words.length);
+            out.cardinality = cardinality;
+            return out;
+        }
+
+        @Override
+        int fill(int[] out, int pos, int high) {
+            for (int i = 0; i < words.length; i++) {
+                long w = words[i];
+                while (w != 0) {
+                    out[pos++] = high | (i << 6) | Long.numberOfTrailingZeros(w);
+                    w &= w - 1;
+                }
+            }
+            return pos;
+        }
+
+        private ArrayContainer toArrayContainer() {
+            char[] values = new char[cardinality];
+            int n = 0;
+            for (int i = 0; i < words.length; i++) {
+                long w = words[i];
+                while (w != 0) {
+                    values[n++] = (char) ((i << 6) | Long.numberOfTrailingZeros(w));
+                    w &= w - 1;
+                }
+            }
+            return new ArrayContainer(values, n);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.demo1;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма длительностей с логарифмическими корзинами.
+ * Каждая степень двойки наносекунд делится на {@link #SUB_BUCKETS} равных корзин,
+ * поэтому процентиль вычисляется с относительной погрешностью не более 1/8
+ * при постоянном объеме памяти. Запись не блокирует и не создает объектов,
+ * гистограмму можно пополнять из нескольких потоков одновременно.
+ */
+final class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(64 * SUB_BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Добавляет длительность в гистограмму
+     * @param nanos длительность в наносекундах (отрицательные значения считаются нулем)
+     */
+    void record(long nanos) {
+        long value = Math.max(nanos, 0);
+        counts.incrementAndGet(bucket(value));
+        total.increment();
+        max.accumulate(value);
+    }
+
+    /** @return количество записанных значений */
+    long count() {
+        return total.sum();
+    }
+
+    /** @return наибольшая записанная длительность в наносекундах */
+    long max() {
+        return max.get();
+    }
+
+    /**
+     * Оценивает процентиль по верхней границе корзины, в которую он попадает
+     * @param percentile процентиль от 0 до 100
+     * @return длительность в наносекундах или 0, если значений нет
+     */
+    long percentile(double percentile) {
+        long n = count();
+        if (n == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(n * percentile / 100.0));
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max());
+            }
+        }
+        return max();
+    }
+
+    // Значения меньше SUB_BUCKETS имеют собственные корзины, далее по SUB_BUCKETS на степень двойки
+    private static int bucket(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+        long sub = bucket % SUB_BUCKETS;
+        long lower = (1L << exponent) | (sub << (exponent - SUB_BITS));
+        return lower + (1L << (exponent - SUB_BITS)) - 1;
+    }
+}
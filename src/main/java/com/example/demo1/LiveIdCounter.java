@@ -0,0 +1,82 @@
+package com.example.demo1;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Множество идентификаторов с подсчетом количества идентификаторов меньше данного
+ * (дерево Фенвика). Идентификаторы записей {@link StudentSearchIndex} выдаются
+ * в порядке списка, поэтому это количество — позиция записи в списке,
+ * а поиск позиции стоит O(log n) вместо просмотра списка.
+ */
+final class LiveIdCounter {
+
+    private final BitSet live = new BitSet();
+    // Дерево Фенвика по индексам 1..tree.length-1
+    private int[] tree = new int[16];
+
+    /**
+     * Добавляет идентификатор; повторное добавление ничего не меняет
+     */
+    void add(int id) {
+        if (live.get(id)) {
+            return;
+        }
+        if (id + 1 >= tree.length) {
+            grow(id + 2);
+        }
+        live.set(id);
+        for (int i = id + 1; i < tree.length; i += i & -i) {
+            tree[i]++;
+        }
+    }
+
+    /**
+     * Удаляет идентификатор
+     */
+    void remove(int id) {
+        if (!live.get(id)) {
+            return;
+        }
+        live.clear(id);
+        for (int i = id + 1; i < tree.length; i += i & -i) {
+            tree[i]--;
+        }
+    }
+
+    void clear() {
+        live.clear();
+        Arrays.fill(tree, 0);
+    }
+
+    /**
+     * @return количество идентификаторов меньше заданного
+     */
+    int countBelow(int id) {
+        int count = 0;
+        for (int i = Math.min(id, tree.length - 1); i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    /**
+     * Увеличивает дерево и строит его заново за линейное время
+     */
+    private void grow(int minLength) {
+        int length = tree.length;
+        while (length < minLength) {
+            length *= 2;
+        }
+        tree = new int[length];
+        for (int id = live.nextSetBit(0); id >= 0; id = live.nextSetBit(id + 1)) {
+            tree[id + 1]++;
+        }
+        for (int i = 1; i < length; i++) {
+            int parent = i + (i & -i);
+            if (parent < length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
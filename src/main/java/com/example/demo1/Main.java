@@ -1,8 +1,18 @@
 package com.example.demo1;
 
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.PauseTransition;
+import javafx.animation.Timeline;
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.beans.property.*;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
 import javafx.collections.*;
+import javafx.concurrent.Task;
+import javafx.collections.transformation.FilteredList;
+import javafx.collections.transformation.SortedList;
 import javafx.event.ActionEvent;
 import javafx.fxml.*;
 import javafx.scene.Scene;
@@ -10,15 +20,19 @@ import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.AnchorPane;
 import javafx.scene.layout.GridPane;
+import javafx.stage.DirectoryChooser;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.beans.value.ObservableValue;
 import javafx.util.Callback;
+import javafx.util.Duration;
 
 import java.io.IOException;
 import java.net.URL;
 import java.nio.file.*;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
 
 /**
  * Главный класс приложения для работы с таблицей студентов.
@@ -37,36 +51,129 @@ public class Main extends Application implements Initializable {
 
     @FXML private TextField tfSearchSurname;
     @FXML private TextField tfSearchGroup;
-    @FXML private Button btnAdd, btnEdit, btnDelete, btnSearch, btnReset;
-    @FXML private Label lblLog;
+    @FXML private TextField tfSearchCity;
+    @FXML private TextField tfSearchAgeFrom, tfSearchAgeTo;
+    @FXML private Button btnAdd, btnEdit, btnDelete, btnSearch, btnReset, btnCancelLoad, btnImport, btnExport, btnStats;
+    @FXML private Label lblLog, lblMetrics;
+    @FXML private CheckBox cbLiveSearch, cbFuzzySearch, cbMetrics;
 
-    // Основной список студентов и путь к файлу данных
-    private final ObservableList<Student> students = FXCollections.observableArrayList();
-    private final String FILE_PATH = "C:\\Users\\Notebook\\OneDrive\\Desktop\\JavaFX LABA готовые\\laba2javafx\\students.txt";
+    // Путь к файлу данных; другой файл (например, созданный StudentRosterGenerator) задается -Dstudents.file
+    private final String FILE_PATH = System.getProperty("students.file",
+            "C:\\Users\\Notebook\\OneDrive\\Desktop\\JavaFX LABA готовые\\laba2javafx\\students.txt");
+    // Хранилище студентов: загрузка, поиск и сохранение.
+    // Режим сохранения: журнал изменений (по умолчанию) или полная перезапись файла (-Dstudents.persistence=rewrite).
+    // Быстрый запуск из двоичного снимка students.txt.bin (-Dstudents.snapshot=binary).
+    // Если текстового файла нет, используется сжатый students.txt.gz (новый файл — при -Dstudents.storage=gzip)
+    private final StudentRepository repository = new StudentRepository(StudentFileFormat.resolve(Paths.get(FILE_PATH)),
+            !"rewrite".equals(System.getProperty("students.persistence")),
+            "binary".equals(System.getProperty("students.snapshot")),
+            message -> Platform.runLater(() -> lblLog.setText(message)));
+    // Основной список студентов, изменяется только через хранилище
+    private final ObservableList<Student> students = repository.students();
+    // Изменения списка из любых потоков с проверкой версий; применяются в потоке JavaFX пачками
+    private final StudentStore studentStore = new StudentStore(repository, Platform::runLater,
+            message -> lblLog.setText(message));
+    // Сортировка по правилам русского языка (-Dstudents.sort=collation), null — сравнение строк.
+    // Создается до представлений, чтобы видеть правки списка раньше них
+    private final StudentSortKeys sortKeys = "collation".equals(System.getProperty("students.sort"))
+            ? new StudentSortKeys(students, Locale.forLanguageTag("ru-RU"))
+            : null;
+    // Представления для таблицы: отбор по условию поиска и сортировка по колонкам
+    private final FilteredList<Student> filteredStudents = new FilteredList<>(students);
+    private final SortedList<Student> sortedStudents = new SortedList<>(filteredStudents);
+    // Загрузка была отменена и список неполон
+    private boolean loadIncomplete;
+    // Поиск при вводе: пауза после последнего нажатия и текущий фоновый запрос
+    private static final Duration SEARCH_DEBOUNCE = Duration.millis(250);
+    private final PauseTransition searchDebounce = new PauseTransition(SEARCH_DEBOUNCE);
+    private Task<Predicate<Student>> searchTask;
+    // Порядок найденных студентов при нечетком поиске фамилии, пока не задана сортировка колонок
+    private Comparator<Student> searchRanking;
+    // Поля формы поиска и правила проверки их содержимого, в порядке на форме
+    private final Map<TextField, StudentValidator.Field> searchFields = new LinkedHashMap<>();
+    // Обновление панели метрик, работает только пока панель открыта
+    private final Timeline metricsRefresh = new Timeline(
+            new KeyFrame(Duration.seconds(1), e -> lblMetrics.setText(metricsText())));
+    // Текущая фоновая задача загрузки файла
+    private StudentLoadTask loadTask;
+    // Текущий импорт внешнего файла или null
+    private StudentImport studentImport;
+    // Текущая выгрузка по файлам или null
+    private StudentExportTask exportTask;
+    // Версия выбранного в таблице студента на момент выбора, для проверки конфликта при удалении
+    private int selectedVersion;
+    // Окно статистики, создается при первом открытии
+    private StudentStatsView statsView;
+    // HTTP сервер запросов к списку (-Dstudents.http.port=порт), null если не запущен
+    private StudentHttpServer httpServer;
+    // Синхронизация с внешними изменениями файла данных (-Dstudents.watch=true), null если выключена
+    private StudentFileWatcher fileWatcher;
+    // Постраничный режим для файлов больше памяти (-Dstudents.paged=true): таблица читает страницы
+    // файла по мере прокрутки, объем кэша страниц задается -Dstudents.paged.cache.mb (по умолчанию 64)
+    private final boolean pagedMode = Boolean.getBoolean("students.paged");
+    // Файл данных в постраничном режиме, null до завершения индексации
+    private PagedStudentSource pagedSource;
+    // Текущая индексация файла и текущий поиск в постраничном режиме
+    private Task<PagedStudentSource> pagedOpenTask;
+    private Task<int[]> pagedSearchTask;
 
     //-----------------------------------------------------------------------------------------------------------
     /**
      * Точка входа в JavaFX приложение.
      * Загружает FXML файл интерфейса и отображает главное окно.
+     * Данные загружаются после первого кадра, чтобы окно появлялось сразу.
      * @param stage главное окно приложения
      */
     @Override
     public void start(Stage stage) throws Exception {
-        // Загрузка FXML файла с абсолютного пути
-        FXMLLoader loader = new FXMLLoader(new URL("file:///C:\\Users\\Notebook\\OneDrive\\Desktop\\JavaFX LABA готовые\\laba2javafx\\src\\main\\resources\\com\\example\\demo1\\hello-view.fxml"));
+        // Загрузка FXML файла из ресурсов рядом с классом
+        FXMLLoader loader = new FXMLLoader(Main.class.getResource("hello-view.fxml"));
         loader.setController(this); // Установка текущего класса в качестве контроллера
         AnchorPane root = loader.load();
 
         Scene scene = new Scene(root);
         stage.setTitle("Работа с таблицами");
         stage.setScene(scene);
+        // Слушатель первого импульса после раскладки; кадр отрисовывается сразу за ним
+        scene.addPostLayoutPulseListener(new Runnable() {
+            @Override
+            public void run() {
+                scene.removePostLayoutPulseListener(this);
+                Platform.runLater(Main.this::onFirstFrame);
+            }
+        });
         stage.show();
     }
     //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Вызывается после отрисовки первого кадра окна.
+     * Учитывает время от запуска процесса до первого кадра в метриках
+     * и запускает загрузку данных и фоновые службы.
+     * При -Dstudents.startup.exit=true приложение сразу завершается:
+     * так измеряется время запуска и создается архив классов CDS (см. pom.xml)
+     */
+    private void onFirstFrame() {
+        ProcessHandle.current().info().startInstant().ifPresent(started -> StudentMetrics.record(
+                StudentMetrics.Operation.FIRST_FRAME,
+                (System.currentTimeMillis() - started.toEpochMilli()) * 1_000_000L, 0, 0));
+        if (Boolean.getBoolean("students.startup.exit")) {
+            Platform.exit();
+            return;
+        }
+        // Загрузка данных из файла
+        loadFromFile();
+        // HTTP сервер и синхронизация работают со списком в памяти, в постраничном режиме его нет
+        if (!pagedMode) {
+            startHttpServer();
+            startFileWatcher();
+        }
+    }
+    //-----------------------------------------------------------------------------------------------------------
     /**
      * Метод инициализации JavaFX контроллера.
      * Вызывается после загрузки FXML файла.
-     * Настраивает таблицу, загружает данные и устанавливает обработчики событий.
+     * Настраивает таблицу и устанавливает обработчики событий;
+     * данные загружаются позже, в {@link #onFirstFrame}.
      * @param url location used to resolve relative paths for the root object
      * @param rb resources used to localize the root object
      */
@@ -80,148 +187,578 @@ public class Main extends Application implements Initializable {
         colCity.setCellValueFactory(new PropertyValueFactory<>("city"));
         colGroup.setCellValueFactory(new PropertyValueFactory<>("group"));
 
-        // Установка списка студентов в таблицу
-        tableView.setItems(students);
+        // Установка списка студентов в таблицу через представления фильтра и сортировки
+        if (sortKeys != null) {
+            setupCollationSort();
+        } else {
+            // Без сортировки колонок результат нечеткого поиска упорядочен по близости фамилии
+            tableView.setSortPolicy(table -> {
+                sortedStudents.setComparator(table.getComparator() != null ? table.getComparator() : searchRanking);
+                return true;
+            });
+        }
+        tableView.setItems(sortedStudents);
+        if (pagedMode) {
+            // Страницы читаются в порядке файла, сортировка потребовала бы чтения всего файла
+            tableView.getColumns().forEach(col -> col.setSortable(false));
+            btnStats.setDisable(true);
+        }
 
         // Слушатель выбора элемента в таблице для отображения информации в логе
         tableView.getSelectionModel().selectedItemProperty().addListener((obs, oldVal, newVal) -> {
-            if (newVal != null)
+            if (newVal != null) {
+                selectedVersion = StudentStore.version(newVal);
                 lblLog.setText(newVal.toString());
+            }
         });
 
-        // Загрузка данных из файла
-        loadFromFile();
-
         // Установка обработчиков событий для кнопок
         btnAdd.setOnAction(this::onAdd);
         btnEdit.setOnAction(this::onEdit);
         btnDelete.setOnAction(this::onDelete);
         btnSearch.setOnAction(this::onSearch);
         btnReset.setOnAction(this::onReset);
+        btnImport.setOnAction(this::onImport);
+        btnExport.setOnAction(this::onExport);
+        btnStats.setOnAction(this::onStats);
+        btnCancelLoad.setOnAction(e -> cancelLoad());
 
         // Добавляем валидацию для полей поиска
         setupValidation();
+        setupMetricsPanel();
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Включает сортировку таблицы по ключам сортировки {@link StudentSortKeys}.
+     * Порядок щелчков по заголовкам колонок задает уровни многоуровневой сортировки;
+     * список упорядочивается параллельно, а SortedList сравнивает готовые ранги.
+     */
+    private void setupCollationSort() {
+        Map<TableColumn<Student, ?>, StudentSortKeys.Field> fields = Map.of(
+                colSurname, StudentSortKeys.Field.SURNAME,
+                colName, StudentSortKeys.Field.NAME,
+                colPatronymic, StudentSortKeys.Field.PATRONYMIC,
+                colAge, StudentSortKeys.Field.AGE,
+                colCity, StudentSortKeys.Field.CITY,
+                colGroup, StudentSortKeys.Field.GROUP);
+        tableView.setSortPolicy(table -> {
+            List<StudentSortKeys.Order> orders = new ArrayList<>();
+            for (TableColumn<Student, ?> col : table.getSortOrder()) {
+                orders.add(new StudentSortKeys.Order(fields.get(col),
+                        col.getSortType() == TableColumn.SortType.ASCENDING));
+            }
+            sortedStudents.setComparator(orders.isEmpty() ? searchRanking : sortKeys.comparator(orders));
+            return true;
+        });
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Запускает HTTP сервер запросов к списку, если задан -Dstudents.http.port.
+     * Сервер работает с тем же списком, что и таблица.
+     */
+    private void startHttpServer() {
+        int port = Integer.getInteger("students.http.port", 0);
+        if (port <= 0) {
+            return;
+        }
+        try {
+            httpServer = new StudentHttpServer(repository, port);
+            httpServer.start();
+        } catch (IOException ex) {
+            lblLog.setText("Ошибка запуска HTTP сервера: " + ex.getMessage());
+        }
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Включает синхронизацию с внешними изменениями файла данных, если задан -Dstudents.watch=true.
+     * К списку применяются только изменившиеся строки, поэтому выделение
+     * и условие поиска сохраняются.
+     */
+    private void startFileWatcher() {
+        if (!Boolean.getBoolean("students.watch")) {
+            return;
+        }
+        try {
+            fileWatcher = new StudentFileWatcher(repository, Platform::runLater, lblLog::setText);
+            fileWatcher.start();
+        } catch (IOException ex) {
+            lblLog.setText("Ошибка наблюдения за файлом: " + ex.getMessage());
+        }
     }
     //-----------------------------------------------------------------------------------------------------------
     /**
      * Настраивает валидацию для полей ввода
      */
     private void setupValidation() {
-        // Валидация для поля поиска фамилии
-        tfSearchSurname.textProperty().addListener((observable, oldValue, newValue) -> {
-            if (!newValue.isEmpty() && !newValue.matches("[а-яА-ЯёЁa-zA-Z\\s-]*")) {
-                tfSearchSurname.setStyle("-fx-border-color: red; -fx-border-width: 2px;");
-                lblLog.setText("Фамилия может содержать только буквы, пробелы и дефис");
-            } else {
+        // Валидация для полей поиска
+        searchFields.put(tfSearchSurname, StudentValidator.Field.SURNAME);
+        searchFields.put(tfSearchGroup, StudentValidator.Field.GROUP);
+        searchFields.put(tfSearchCity, StudentValidator.Field.CITY);
+        searchFields.put(tfSearchAgeFrom, StudentValidator.Field.AGE);
+        searchFields.put(tfSearchAgeTo, StudentValidator.Field.AGE);
+        searchFields.forEach(this::setupFieldValidation);
+
+        // Поиск при вводе запускается после паузы в наборе
+        searchDebounce.setOnFinished(e -> runLiveSearch());
+        for (TextField field : searchFields.keySet()) {
+            field.textProperty().addListener((obs, oldVal, newVal) -> scheduleLiveSearch());
+        }
+
+        // При нечетком поиске фамилия не проверяется: лишние символы отбрасываются при сравнении
+        cbFuzzySearch.selectedProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal || StudentValidator.Field.SURNAME.allows(tfSearchSurname.getText())) {
                 tfSearchSurname.setStyle("");
             }
+            scheduleLiveSearch();
         });
-
-        // Валидация для поля поиска группы
-        tfSearchGroup.textProperty().addListener((observable, oldValue, newValue) -> {
-            if (!newValue.isEmpty() && !newValue.matches("[а-яА-ЯёЁa-zA-Z0-9-]*")) {
-                tfSearchGroup.setStyle("-fx-border-color: red; -fx-border-width: 2px;");
-                lblLog.setText("Группа может содержать только буквы, цифры и дефис");
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Настраивает необязательную панель метрик: задержки загрузки, сохранения,
+     * поиска и проверки (p50/p99), обновляемые раз в секунду.
+     * Панель открыта сразу при -Dstudents.metrics.panel=true
+     */
+    private void setupMetricsPanel() {
+        metricsRefresh.setCycleCount(Animation.INDEFINITE);
+        lblMetrics.visibleProperty().bind(cbMetrics.selectedProperty());
+        cbMetrics.selectedProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal) {
+                lblMetrics.setText(metricsText());
+                metricsRefresh.play();
             } else {
-                tfSearchGroup.setStyle("");
+                metricsRefresh.stop();
             }
         });
+        cbMetrics.setSelected(Boolean.getBoolean("students.metrics.panel"));
+    }
+
+    /**
+     * @return текст панели метрик; в постраничном режиме — со счетчиками кэша страниц
+     */
+    private String metricsText() {
+        String summary = StudentMetrics.summary();
+        return pagedSource != null ? summary + "\n" + pagedSource.cache().summary() : summary;
     }
     //-----------------------------------------------------------------------------------------------------------
     /**
-     * Загружает список студентов из текстового файла.
-     * Формат файла: Фамилия;Имя;Отчество;Возраст;Город;Группа
-     * Очищает текущий список перед загрузкой.
+     * Перезапускает отсчет паузы перед поиском при вводе
      */
-    private void loadFromFile() {
-        students.clear();
-        Path path = Paths.get(FILE_PATH);
-        if (Files.exists(path)) {
-            try {
-                List<String> lines = Files.readAllLines(path);
-                for (String line : lines) {
-                    String[] parts = line.split(";");
-                    if (parts.length == 6) {
-                        try {
-                            // Валидация данных из файла
-                            validateStudentData(parts[1], parts[0], parts[2], parts[3], parts[4], parts[5]);
-
-                            // Создание нового студента из данных файла
-                            Student s = new Student(parts[1], parts[0], parts[2],
-                                    Integer.parseInt(parts[3]), parts[4], parts[5]);
-                            students.add(s);
-                        } catch (IllegalArgumentException e) {
-                            lblLog.setText("Ошибка в данных файла: " + e.getMessage() + " в строке: " + line);
-                        }
-                    } else {
-                        lblLog.setText("Некорректный формат строки: " + line);
-                    }
-                }
-            } catch (IOException e) {
-                lblLog.setText("Ошибка чтения файла: " + e.getMessage());
-            } catch (Exception e) {
-                lblLog.setText("Неизвестная ошибка при загрузке файла: " + e.getMessage());
-            }
-        } else {
-            lblLog.setText("Файл не найден: " + FILE_PATH);
+    private void scheduleLiveSearch() {
+        if (cbLiveSearch.isSelected()) {
+            searchDebounce.playFromStart();
         }
     }
     //-----------------------------------------------------------------------------------------------------------
     /**
-     * Валидирует данные студента
+     * Выполняет поиск при вводе.
+     * Кандидаты по индексу вычисляются в фоновом потоке; предыдущий незавершенный
+     * запрос отменяется, и к таблице применяется только результат последнего.
      */
-    private void validateStudentData(String name, String surname, String patronymic, String ageStr, String city, String group) {
-        // Проверка имени
-        if (name == null || name.trim().isEmpty()) {
-            throw new IllegalArgumentException("Имя не может быть пустым");
+    private void runLiveSearch() {
+        cancelLiveSearch();
+
+        // При недопустимых символах поле уже подсвечено, поиск не выполняется
+        if (invalidSearchField() != null) {
+            return;
         }
-        if (!name.matches("[а-яА-ЯёЁa-zA-Z\\s-]+")) {
-            throw new IllegalArgumentException("Имя содержит недопустимые символы");
+        StudentSearchIndex.Criteria criteria = searchCriteria();
+        if (pagedSource != null) {
+            if (criteria.isEmpty()) {
+                tableView.setItems(new PagedStudentList(pagedSource));
+                lblLog.setText("Отображены все студенты: " + pagedSource.size());
+            } else {
+                runPagedSearch(criteria, true);
+            }
+            return;
+        }
+        if (criteria.isEmpty()) {
+            filteredStudents.setPredicate(null);
+            setSearchRanking(null);
+            lblLog.setText("Отображены все студенты: " + filteredStudents.size());
+            return;
         }
 
-        // Проверка фамилии
-        if (surname == null || surname.trim().isEmpty()) {
-            throw new IllegalArgumentException("Фамилия не может быть пустой");
+        // Замер от запроса до обновления таблицы, включая ожидание фонового потока
+        StudentEvents.Search event = new StudentEvents.Search(criteria.surname(), criteria.group(), true);
+        event.start();
+        Task<Predicate<Student>> task = new Task<>() {
+            @Override
+            protected Predicate<Student> call() {
+                return repository.filter(criteria);
+            }
+        };
+        task.setOnSucceeded(ev -> {
+            if (task == searchTask) {
+                searchTask = null;
+                applySearch(task.getValue(), repository.ranking(criteria), event);
+            }
+        });
+        task.setOnFailed(ev -> lblLog.setText("Ошибка при поиске: " + task.getException().getMessage()));
+        searchTask = task;
+        Thread.ofVirtual().name("students-search").start(task);
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Отменяет ожидающий и выполняющийся поиск при вводе
+     */
+    private void cancelLiveSearch() {
+        searchDebounce.stop();
+        if (searchTask != null) {
+            searchTask.cancel();
+            searchTask = null;
         }
-        if (!surname.matches("[а-яА-ЯёЁa-zA-Z\\s-]+")) {
-            throw new IllegalArgumentException("Фамилия содержит недопустимые символы");
+        if (pagedSearchTask != null) {
+            pagedSearchTask.cancel();
+            pagedSearchTask = null;
         }
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Поиск в постраничном режиме: файл просматривается в фоновых потоках,
+     * таблица показывает найденных студентов, читая их страницы по мере прокрутки
+     * @param live true — поиск при вводе
+     */
+    private void runPagedSearch(StudentSearchIndex.Criteria criteria, boolean live) {
+        cancelLiveSearch();
+        StudentEvents.Search event = new StudentEvents.Search(criteria.surname(), criteria.group(), live);
+        event.start();
+        PagedStudentSource source = pagedSource;
+        Task<int[]> task = new Task<>() {
+            @Override
+            protected int[] call() {
+                return source.search(criteria, this::isCancelled);
+            }
+        };
+        task.setOnSucceeded(ev -> {
+            if (task == pagedSearchTask && task.getValue() != null) {
+                pagedSearchTask = null;
+                PagedStudentList found = new PagedStudentList(source, criteria, task.getValue());
+                tableView.setItems(found);
+                event.rows = found.size();
+                event.finish();
+                lblLog.setText(found.isEmpty() ? "Студенты не найдены" : "Найдено студентов: " + found.size());
+            }
+        });
+        task.setOnFailed(ev -> lblLog.setText("Ошибка при поиске: " + task.getException().getMessage()));
+        pagedSearchTask = task;
+        lblLog.setText("Поиск...");
+        Thread.ofVirtual().name("students-search").start(task);
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Применяет условие поиска к таблице и выводит количество найденных студентов
+     * @param ranking порядок найденных студентов при нечетком поиске или null
+     * @param event событие поиска, начатое при запросе; завершается здесь
+     */
+    private void applySearch(Predicate<Student> predicate, Comparator<Student> ranking, StudentEvents.Search event) {
+        filteredStudents.setPredicate(predicate);
+        setSearchRanking(ranking);
+        event.rows = filteredStudents.size();
+        event.finish();
+        if (filteredStudents.isEmpty()) {
+            lblLog.setText("Студенты не найдены");
+        } else {
+            lblLog.setText("Найдено студентов: " + filteredStudents.size());
+        }
+    }
 
-        // Проверка отчества
-        if (patronymic == null || patronymic.trim().isEmpty()) {
-            throw new IllegalArgumentException("Отчество не может быть пустым");
+    /**
+     * Задает порядок найденных студентов; порядок колонок таблицы, если он задан, важнее
+     */
+    private void setSearchRanking(Comparator<Student> ranking) {
+        if (ranking != searchRanking) {
+            searchRanking = ranking;
+            tableView.sort();
         }
-        if (!patronymic.matches("[а-яА-ЯёЁa-zA-Z\\s-]+")) {
-            throw new IllegalArgumentException("Отчество содержит недопустимые символы");
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Загружает список студентов из текстового файла.
+     * Формат файла: Фамилия;Имя;Отчество;Возраст;Город;Группа
+     * Очищает текущий список перед загрузкой. Чтение и разбор выполняются
+     * в фоновой задаче, записи добавляются в список пачками.
+     */
+    private void loadFromFile() {
+        cancelLoad();
+        loadIncomplete = false;
+        if (pagedMode) {
+            openPaged();
+            return;
+        }
+        StudentFileLoader loader = repository.prepareLoad();
+        if (loader == null) {
+            lblLog.setText("Файл не найден: " + repository.getDataPath());
+            studentStore.resume();
+            return;
         }
 
-        // Проверка возраста
-        try {
-            int age = Integer.parseInt(ageStr);
-            if (age <= 0 || age > 120) {
-                throw new IllegalArgumentException("Возраст должен быть от 1 до 120");
+        StudentLoadTask task = new StudentLoadTask(loader, repository::addBatch);
+        task.messageProperty().addListener((obs, oldVal, newVal) -> lblLog.setText(newVal));
+        task.progressProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal.doubleValue() >= 0)
+                lblLog.setText(String.format("Загрузка: %d%%, студентов: %d",
+                        Math.round(newVal.doubleValue() * 100), students.size()));
+        });
+        task.setOnSucceeded(ev -> {
+            setLoading(false);
+            // Применение журнала изменений поверх снимка
+            repository.loadFinished(task.getLoader());
+            studentStore.resume();
+            if (task.getErrorCount() > 0) {
+                lblLog.setText(task.getLastError() + " (ошибок: " + task.getErrorCount() + ")");
+            } else {
+                lblLog.setText("Загружено студентов: " + task.getValue());
             }
-        } catch (NumberFormatException e) {
-            throw new IllegalArgumentException("Возраст должен быть числом");
+        });
+        task.setOnCancelled(ev -> {
+            setLoading(false);
+            // Список загружен не полностью, его сохранение испортило бы файл
+            setEditingEnabled(false);
+            loadIncomplete = true;
+            lblLog.setText("Загрузка отменена, загружено студентов: " + students.size()
+                    + ". Изменения недоступны до повторной загрузки (Сброс)");
+        });
+        task.setOnFailed(ev -> {
+            setLoading(false);
+            Throwable ex = task.getException();
+            if (ex instanceof IOException) {
+                lblLog.setText("Ошибка чтения файла: " + ex.getMessage());
+            } else {
+                lblLog.setText("Неизвестная ошибка при загрузке файла: " + ex.getMessage());
+            }
+        });
+
+        loadTask = task;
+        setLoading(true);
+        Thread.ofVirtual().name("students-loader").start(task);
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Открывает файл данных в постраничном режиме: в фоновой задаче строит индекс
+     * страниц и применяет журнал, затем показывает список в таблице.
+     * Импорт и статистика в этом режиме недоступны.
+     */
+    private void openPaged() {
+        closePaged();
+        Path path = repository.getDataPath();
+        if (!Files.exists(path)) {
+            lblLog.setText("Файл не найден: " + path);
+            setEditingEnabled(false);
+            return;
         }
+        long cacheBytes = Long.getLong("students.paged.cache.mb", 64) << 20;
+        Task<PagedStudentSource> task = new Task<>() {
+            @Override
+            protected PagedStudentSource call() throws Exception {
+                BooleanSupplier cancelled = this::isCancelled;
+                return PagedStudentSource.open(path, cacheBytes,
+                        message -> Platform.runLater(() -> lblLog.setText(message)),
+                        new StudentFileLoader.Sink() {
+                            @Override
+                            public void batch(List<Student> batch) {
+                            }
+
+                            @Override
+                            public void progress(long done, long total) {
+                                updateProgress(done, total);
+                            }
+
+                            @Override
+                            public void error(String message) {
+                                updateMessage(message);
+                            }
 
-        // Проверка города
-        if (city == null || city.trim().isEmpty()) {
-            throw new IllegalArgumentException("Город не может быть пустым");
+                            @Override
+                            public boolean isCancelled() {
+                                return cancelled.getAsBoolean();
+                            }
+                        });
+            }
+        };
+        task.progressProperty().addListener((obs, oldVal, newVal) -> {
+            if (newVal.doubleValue() >= 0)
+                lblLog.setText(String.format("Индексация файла: %d%%", Math.round(newVal.doubleValue() * 100)));
+        });
+        task.setOnSucceeded(ev -> {
+            setLoading(false);
+            if (task.getValue() == null) {
+                return;
+            }
+            pagedSource = task.getValue();
+            tableView.setItems(new PagedStudentList(pagedSource));
+            String loaded = "Постраничный режим, студентов: " + pagedSource.size();
+            lblLog.setText(task.getMessage().isEmpty() ? loaded : loaded + ". " + task.getMessage());
+        });
+        task.setOnCancelled(ev -> {
+            setLoading(false);
+            setEditingEnabled(false);
+            loadIncomplete = true;
+            lblLog.setText("Индексация отменена. Изменения недоступны до повторной загрузки (Сброс)");
+        });
+        task.setOnFailed(ev -> {
+            setLoading(false);
+            setEditingEnabled(false);
+            lblLog.setText("Ошибка чтения файла: " + task.getException().getMessage());
+        });
+
+        pagedOpenTask = task;
+        setLoading(true);
+        Thread.ofVirtual().name("students-paged-index").start(task);
+    }
+
+    /**
+     * Закрывает файл данных постраничного режима, дождавшись записи журнала
+     */
+    private void closePaged() {
+        if (pagedSource == null) {
+            return;
         }
-        if (!city.matches("[а-яА-ЯёЁa-zA-Z\\s-]+")) {
-            throw new IllegalArgumentException("Город содержит недопустимые символы");
+        try {
+            pagedSource.close();
+        } catch (IOException ex) {
+            lblLog.setText("Ошибка закрытия файла: " + ex.getMessage());
         }
-
-        // Проверка группы
-        if (group == null || group.trim().isEmpty()) {
-            throw new IllegalArgumentException("Группа не может быть пустой");
+        pagedSource = null;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Отменяет текущую фоновую загрузку, если она выполняется
+     */
+    private void cancelLoad() {
+        if (loadTask != null && loadTask.isRunning()) {
+            loadTask.cancel();
+        }
+        if (pagedOpenTask != null && pagedOpenTask.isRunning()) {
+            pagedOpenTask.cancel();
+        }
+        if (studentImport != null) {
+            studentImport.cancel();
         }
-        if (!group.matches("[а-яА-ЯёЁa-zA-Z0-9-]+")) {
-            throw new IllegalArgumentException("Группа содержит недопустимые символы");
+        if (exportTask != null && exportTask.isRunning()) {
+            exportTask.cancel();
         }
     }
     //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Обработчик кнопки "Статистика".
+     * Показывает количество студентов по группам и городам и распределение возраста.
+     * @param e событие нажатия кнопки
+     */
+    private void onStats(ActionEvent e) {
+        if (statsView == null) {
+            statsView = new StudentStatsView(repository.stats(), tableView.getScene().getWindow());
+        }
+        statsView.show();
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Обработчик кнопки "Импорт".
+     * Добавляет в список студентов из выбранного файла в формате файла данных.
+     * На время импорта изменение данных заблокировано, отмена удаляет уже
+     * добавленных студентов.
+     * @param e событие нажатия кнопки
+     */
+    private void onImport(ActionEvent e) {
+        FileChooser chooser = new FileChooser();
+        chooser.setTitle("Импорт студентов");
+        chooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("Текстовые файлы", "*.txt", "*.txt.gz"));
+        java.io.File file = chooser.showOpenDialog(tableView.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+        studentImport = new StudentImport(repository, file.toPath(), lblLog::setText, () -> {
+            studentImport = null;
+            setLoading(false);
+        });
+        setLoading(true);
+        studentImport.start();
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Обработчик кнопки "Экспорт".
+     * Выгружает студентов, показанных в таблице (результат поиска или весь список),
+     * в выбранный каталог по одному файлу на группу или город. Запись выполняется
+     * в фоновой задаче по копии значений, сделанной в потоке JavaFX: изменения,
+     * которые применяются к списку во время выгрузки (уже принятые хранилищем,
+     * синхронизация с файлом), в файлы не попадают.
+     * @param e событие нажатия кнопки
+     */
+    private void onExport(ActionEvent e) {
+        ChoiceDialog<StudentExportTask.Partition> partitionDialog = new ChoiceDialog<>(
+                StudentExportTask.Partition.GROUP, StudentExportTask.Partition.values());
+        partitionDialog.setTitle("Экспорт студентов");
+        partitionDialog.setHeaderText(null);
+        partitionDialog.setContentText("Файлы:");
+        Optional<StudentExportTask.Partition> partition = partitionDialog.showAndWait();
+        if (partition.isEmpty()) {
+            return;
+        }
+        DirectoryChooser chooser = new DirectoryChooser();
+        chooser.setTitle("Каталог для экспорта");
+        java.io.File dir = chooser.showDialog(tableView.getScene().getWindow());
+        if (dir == null) {
+            return;
+        }
+
+        // Значения копируются в порядке таблицы в потоке-владельце списка: студентов
+        // продолжают менять публикация хранилища и синхронизация с файлом
+        List<StudentRepository.Row> rows = new ArrayList<>(tableView.getItems().size());
+        for (Student s : tableView.getItems()) {
+            rows.add(StudentRepository.Row.of(s));
+        }
+        StudentExportTask task = new StudentExportTask(rows, partition.get(), dir.toPath());
+        task.messageProperty().addListener((obs, oldVal, newVal) -> lblLog.setText(newVal));
+        task.setOnSucceeded(ev -> {
+            exportTask = null;
+            setLoading(false);
+            StudentExportTask.Result r = task.getValue();
+            lblLog.setText(String.format("Экспортировано студентов: %d в %d файлов за %.1f сек. (%.1f МБ/с)",
+                    r.rows(), r.files(), r.seconds(), r.megabytesPerSecond()));
+        });
+        task.setOnCancelled(ev -> {
+            exportTask = null;
+            setLoading(false);
+            lblLog.setText("Экспорт отменен");
+        });
+        task.setOnFailed(ev -> {
+            exportTask = null;
+            setLoading(false);
+            lblLog.setText("Ошибка экспорта: " + task.getException().getMessage());
+        });
+        exportTask = task;
+        setLoading(true);
+        Thread.ofVirtual().name("students-export").start(task);
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Блокирует изменение данных на время загрузки, чтобы сохранение
+     * не перезаписало файл неполным списком
+     */
+    private void setLoading(boolean loading) {
+        setEditingEnabled(!loading);
+        btnCancelLoad.setDisable(!loading);
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Включает или отключает кнопки изменения данных
+     */
+    private void setEditingEnabled(boolean enabled) {
+        btnAdd.setDisable(!enabled);
+        btnEdit.setDisable(!enabled);
+        btnDelete.setDisable(!enabled);
+        // Импорт добавляет студентов в список в памяти, в постраничном режиме его нет
+        btnImport.setDisable(!enabled || pagedMode);
+        // В постраничном режиме список не хранится в памяти, выгрузка прочитала бы весь файл в потоке JavaFX
+        btnExport.setDisable(!enabled || pagedMode);
+    }
+
+    /**
+     * @return список таблицы в постраничном режиме (все студенты или результат поиска)
+     */
+    private PagedStudentList pagedStudents() {
+        return (PagedStudentList) tableView.getItems();
+    }
+    //-----------------------------------------------------------------------------------------------------------
     /**
      * Обработчик кнопки "Добавить".
      * Создает нового студента и открывает диалоговое окно для ввода данных.
@@ -230,8 +767,11 @@ public class Main extends Application implements Initializable {
     private void onAdd(ActionEvent e) {
         Student s = new Student();
         if (showDialog(s)) {
-            students.add(s);
-            saveToFile();
+            if (pagedSource != null) {
+                pagedStudents().add(s);
+            } else {
+                studentStore.add(s);
+            }
             lblLog.setText("Добавлен новый студент: " + s.getSurname());
         }
     }
@@ -239,14 +779,38 @@ public class Main extends Application implements Initializable {
     /**
      * Обработчик кнопки "Редактировать".
      * Открывает диалоговое окно для редактирования выбранного студента.
+     * Значения вводятся в копию и переносятся в список хранилищем.
      * @param e событие нажатия кнопки
      */
     private void onEdit(ActionEvent e) {
         Student s = tableView.getSelectionModel().getSelectedItem();
-        if (s != null) {
-            if (showDialog(s)) {
-                saveToFile();
-                lblLog.setText("Данные студента обновлены: " + s.getSurname());
+        if (s != null && pagedSource != null) {
+            // Список и позиция до открытия диалога: поиск при вводе может сменить список в таблице
+            PagedStudentList list = pagedStudents();
+            int index = tableView.getSelectionModel().getSelectedIndex();
+            Student values = new Student(s.getName(), s.getSurname(), s.getPatronymic(),
+                    s.getAge(), s.getCity(), s.getGroup());
+            if (showDialog(values)) {
+                list.set(index, values);
+                lblLog.setText("Данные студента обновлены: " + values.getSurname());
+            }
+        } else if (s != null) {
+            // Версия до открытия диалога: правка другим писателем за это время — конфликт
+            int version = StudentStore.version(s);
+            Student values = new Student(s.getName(), s.getSurname(), s.getPatronymic(),
+                    s.getAge(), s.getCity(), s.getGroup());
+            if (showDialog(values)) {
+                switch (studentStore.update(s, version, values)) {
+                    case ACCEPTED -> {
+                        // Собственная правка не должна считаться конфликтом при удалении
+                        if (s == tableView.getSelectionModel().getSelectedItem()) {
+                            selectedVersion = version + 1;
+                        }
+                        lblLog.setText("Данные студента обновлены: " + values.getSurname());
+                    }
+                    case CONFLICT -> lblLog.setText("Ошибка: студент изменен во время редактирования, изменения не сохранены");
+                    case DELETED -> lblLog.setText("Ошибка: студент удален, изменения не сохранены");
+                }
             }
         } else {
             lblLog.setText("Ошибка: Выберите студента для редактирования");
@@ -255,105 +819,128 @@ public class Main extends Application implements Initializable {
     //-----------------------------------------------------------------------------------------------------------
     /**
      * Обработчик кнопки "Удалить".
-     * Удаляет выбранного студента из таблицы и списка.
+     * Удаляет выбранного студента из таблицы и списка, если после выбора
+     * строки студента не изменил другой писатель (хранилище, синхронизация с файлом).
      * @param e событие нажатия кнопки
      */
     private void onDelete(ActionEvent e) {
         Student s = tableView.getSelectionModel().getSelectedItem();
-        if (s != null) {
-            students.remove(s);
-            saveToFile();
+        if (s != null && pagedSource != null) {
+            pagedStudents().remove(tableView.getSelectionModel().getSelectedIndex());
             lblLog.setText("Удалено: " + s.getSurname());
+        } else if (s != null) {
+            // Версия на момент выбора: удаляется тот студент, которого видел пользователь
+            switch (studentStore.delete(s, selectedVersion)) {
+                case ACCEPTED -> lblLog.setText("Удалено: " + s.getSurname());
+                case CONFLICT -> {
+                    // Повторное удаление относится к новым значениям, уже показанным в таблице
+                    selectedVersion = StudentStore.version(s);
+                    lblLog.setText("Ошибка: студент только что изменен, повторите удаление");
+                }
+                case DELETED -> lblLog.setText("Ошибка: студент уже удален");
+            }
         } else {
             lblLog.setText("Ошибка: Выберите студента для удаления");
         }
     }
     //-----------------------------------------------------------------------------------------------------------
-    /**
-     * Сохраняет список студентов в файл
-     */
-    private void saveToFile() {
-        try {
-            Path path = Paths.get(FILE_PATH);
-            List<String> lines = students.stream()
-                    .map(s -> String.format("%s;%s;%s;%d;%s;%s",
-                            s.getSurname(), s.getName(), s.getPatronymic(),
-                            s.getAge(), s.getCity(), s.getGroup()))
-                    .collect(Collectors.toList());
-            Files.write(path, lines, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-        } catch (IOException e) {
-            lblLog.setText("Ошибка сохранения файла: " + e.getMessage());
-        }
-    }
-    //-----------------------------------------------------------------------------------------------------------
     /**
      * Обработчик кнопки "Поиск".
      * Выполняет фильтрацию студентов по фамилии и/или группе.
      * @param e событие нажатия кнопки
      */
     private void onSearch(ActionEvent e) {
-        // Получаем и очищаем введенные данные
-        String surname = tfSearchSurname.getText().trim();
-        String group = tfSearchGroup.getText().trim();
-
-        // Проверка на пустые поля (хотя бы одно должно быть заполнено)
-        if (surname.isEmpty() && group.isEmpty()) {
-            lblLog.setText("Ошибка: Введите фамилию или группу для поиска");
+        // Проверка формата заполненных полей
+        TextField invalid = invalidSearchField();
+        if (invalid != null) {
+            lblLog.setText("Ошибка: " + searchFields.get(invalid).hint());
+            invalid.setStyle("-fx-border-color: red; -fx-border-width: 2px;");
             return;
         }
 
-        // Проверка формата фамилии (если поле не пустое)
-        if (!surname.isEmpty() && !surname.matches("[а-яА-ЯёЁa-zA-Z\\s-]+")) {
-            lblLog.setText("Ошибка: Фамилия может содержать только буквы, пробелы и дефис");
-            tfSearchSurname.setStyle("-fx-border-color: red; -fx-border-width: 2px;");
+        // Проверка на пустые поля (хотя бы одно должно быть заполнено)
+        StudentSearchIndex.Criteria criteria = searchCriteria();
+        if (criteria.isEmpty()) {
+            lblLog.setText("Ошибка: Введите фамилию, группу, город или возраст для поиска");
             return;
         }
 
-        // Проверка формата группы (если поле не пустое)
-        if (!group.isEmpty() && !group.matches("[а-яА-ЯёЁa-zA-Z0-9-]+")) {
-            lblLog.setText("Ошибка: Группа может содержать только буквы, цифры и дефис");
-            tfSearchGroup.setStyle("-fx-border-color: red; -fx-border-width: 2px;");
+        if (pagedSource != null) {
+            runPagedSearch(criteria, false);
             return;
         }
-
         try {
-            // Приводим к нижнему регистру для поиска без учета регистра
-            String surnameLower = surname.toLowerCase();
-            String groupLower = group.toLowerCase();
-
-            // Фильтрация студентов по заданным критериям
-            List<Student> filtered = students.stream()
-                    .filter(s -> (surname.isEmpty() || s.getSurname().toLowerCase().contains(surnameLower)) &&
-                            (group.isEmpty() || s.getGroup().toLowerCase().contains(groupLower)))
-                    .collect(Collectors.toList());
-
-            // Отображаем результаты фильтрации в таблице
-            tableView.setItems(FXCollections.observableArrayList(filtered));
-
-            // Выводим информацию о количестве найденных результатов
-            if (filtered.isEmpty()) {
-                lblLog.setText("Студенты не найдены");
-            } else {
-                lblLog.setText("Найдено студентов: " + filtered.size());
-            }
-
+            // Фильтр без учета регистра по индексам, таблица обновляется сама
+            cancelLiveSearch();
+            StudentEvents.Search event = new StudentEvents.Search(criteria.surname(), criteria.group(), false);
+            event.start();
+            applySearch(repository.filter(criteria), repository.ranking(criteria), event);
         } catch (Exception ex) {
             lblLog.setText("Ошибка при поиске: " + ex.getMessage());
         }
     }
     //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Проверяет поля формы поиска
+     * @return первое поле с недопустимым значением или null, если все поля корректны
+     */
+    private TextField invalidSearchField() {
+        for (Map.Entry<TextField, StudentValidator.Field> f : searchFields.entrySet()) {
+            String text = f.getKey().getText().trim();
+            if (!checksCharacters(f.getKey())) {
+                continue;
+            }
+            if (!f.getValue().allows(text)
+                    || (f.getValue() == StudentValidator.Field.AGE && !text.isEmpty()
+                        && StudentValidator.parseAge(text) == StudentValidator.NOT_A_NUMBER)) {
+                return f.getKey();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return false для поля фамилии при нечетком поиске: его символы не проверяются
+     */
+    private boolean checksCharacters(TextField field) {
+        return field != tfSearchSurname || !cbFuzzySearch.isSelected();
+    }
+
+    /**
+     * Собирает условия поиска из полей формы; пустое поле возраста — граница не задана
+     */
+    private StudentSearchIndex.Criteria searchCriteria() {
+        String ageFrom = tfSearchAgeFrom.getText().trim();
+        String ageTo = tfSearchAgeTo.getText().trim();
+        return new StudentSearchIndex.Criteria(
+                tfSearchSurname.getText().trim(), tfSearchGroup.getText().trim(), tfSearchCity.getText().trim(),
+                ageFrom.isEmpty() ? StudentSearchIndex.Criteria.ANY_AGE_MIN : StudentValidator.parseAge(ageFrom),
+                ageTo.isEmpty() ? StudentSearchIndex.Criteria.ANY_AGE_MAX : StudentValidator.parseAge(ageTo),
+                cbFuzzySearch.isSelected());
+    }
+    //-----------------------------------------------------------------------------------------------------------
     /**
      * Обработчик кнопки "Сброс".
-     * Восстанавливает полный список студентов из файла.
+     * Снимает условие поиска и показывает полный список студентов без чтения файла.
+     * Если предыдущая загрузка была отменена, файл загружается заново.
      * @param e событие нажатия кнопки
      */
     private void onReset(ActionEvent e) {
-        loadFromFile();
-        tableView.setItems(students);
-        tfSearchSurname.clear();
-        tfSearchGroup.clear();
-        tfSearchSurname.setStyle("");
-        tfSearchGroup.setStyle("");
+        if (pagedSource != null) {
+            tableView.setItems(new PagedStudentList(pagedSource));
+        } else {
+            filteredStudents.setPredicate(null);
+            setSearchRanking(null);
+        }
+        if (loadIncomplete) {
+            loadFromFile();
+        }
+        for (TextField field : searchFields.keySet()) {
+            field.clear();
+            field.setStyle("");
+        }
+        // Очистка полей запускает поиск при вводе, он здесь не нужен
+        cancelLiveSearch();
         lblLog.setText("Поиск сброшен, отображены все студенты");
     }
     //-----------------------------------------------------------------------------------------------------------
@@ -377,11 +964,11 @@ public class Main extends Application implements Initializable {
         TextField tfGroup = new TextField(student.getGroup());
 
         // Добавление валидации в реальном времени
-        setupFieldValidation(tfName, "[а-яА-ЯёЁa-zA-Z\\s-]*", "Имя может содержать только буквы, пробелы и дефис");
-        setupFieldValidation(tfSurname, "[а-яА-ЯёЁa-zA-Z\\s-]*", "Фамилия может содержать только буквы, пробелы и дефис");
-        setupFieldValidation(tfPatronymic, "[а-яА-ЯёЁa-zA-Z\\s-]*", "Отчество может содержать только буквы, пробелы и дефис");
-        setupFieldValidation(tfCity, "[а-яА-ЯёЁa-zA-Z\\s-]*", "Город может содержать только буквы, пробелы и дефис");
-        setupFieldValidation(tfGroup, "[а-яА-ЯёЁa-zA-Z0-9-]*", "Группа может содержать только буквы, цифры и дефис");
+        setupFieldValidation(tfName, StudentValidator.Field.NAME);
+        setupFieldValidation(tfSurname, StudentValidator.Field.SURNAME);
+        setupFieldValidation(tfPatronymic, StudentValidator.Field.PATRONYMIC);
+        setupFieldValidation(tfCity, StudentValidator.Field.CITY);
+        setupFieldValidation(tfGroup, StudentValidator.Field.GROUP);
 
         // Ограничение длины полей
         tfName.setTextFormatter(new TextFormatter<String>(change ->
@@ -395,7 +982,7 @@ public class Main extends Application implements Initializable {
         tfGroup.setTextFormatter(new TextFormatter<String>(change ->
                 change.getControlNewText().length() <= 20 ? change : null));
         tfAge.setTextFormatter(new TextFormatter<String>(change ->
-                change.getControlNewText().matches("\\d*") && change.getControlNewText().length() <= 3 ? change : null));
+                StudentValidator.isDigits(change.getControlNewText()) && change.getControlNewText().length() <= 3 ? change : null));
 
         // Добавление полей ввода на форму
         grid.addRow(0, new Label("Имя*:"), tfName);
@@ -417,82 +1004,49 @@ public class Main extends Application implements Initializable {
         // Отображение диалога и ожидание ответа пользователя
         Optional<ButtonType> result = dialog.showAndWait();
         if (result.isPresent() && result.get() == ButtonType.OK) {
-            try {
-                // Валидация введенных данных
-                if (tfName.getText().trim().isEmpty()) {
-                    throw new IllegalArgumentException("Имя не может быть пустым");
-                }
-                if (!tfName.getText().trim().matches("[а-яА-ЯёЁa-zA-Z\\s-]+")) {
-                    throw new IllegalArgumentException("Имя содержит недопустимые символы");
-                }
-
-                if (tfSurname.getText().trim().isEmpty()) {
-                    throw new IllegalArgumentException("Фамилия не может быть пустой");
-                }
-                if (!tfSurname.getText().trim().matches("[а-яА-ЯёЁa-zA-Z\\s-]+")) {
-                    throw new IllegalArgumentException("Фамилия содержит недопустимые символы");
-                }
-
-                if (tfPatronymic.getText().trim().isEmpty()) {
-                    throw new IllegalArgumentException("Отчество не может быть пустым");
-                }
-                if (!tfPatronymic.getText().trim().matches("[а-яА-ЯёЁa-zA-Z\\s-]+")) {
-                    throw new IllegalArgumentException("Отчество содержит недопустимые символы");
-                }
-
-                if (tfCity.getText().trim().isEmpty()) {
-                    throw new IllegalArgumentException("Город не может быть пустым");
-                }
-                if (!tfCity.getText().trim().matches("[а-яА-ЯёЁa-zA-Z\\s-]+")) {
-                    throw new IllegalArgumentException("Город содержит недопустимые символы");
-                }
-
-                int age;
-                try {
-                    age = Integer.parseInt(tfAge.getText().trim());
-                    if (age <= 0 || age > 120) {
-                        throw new IllegalArgumentException("Возраст должен быть от 1 до 120");
-                    }
-                } catch (NumberFormatException ex) {
-                    throw new IllegalArgumentException("Возраст должен быть числом");
-                }
-
-                if (tfGroup.getText().trim().isEmpty()) {
-                    throw new IllegalArgumentException("Группа не может быть пустой");
-                }
-                if (!tfGroup.getText().trim().matches("[а-яА-ЯёЁa-zA-Z0-9-]+")) {
-                    throw new IllegalArgumentException("Группа содержит недопустимые символы");
-                }
-
-                // Сохранение данных если все проверки пройдены
-                student.setName(tfName.getText().trim());
-                student.setSurname(tfSurname.getText().trim());
-                student.setPatronymic(tfPatronymic.getText().trim());
-                student.setAge(age);
-                student.setCity(tfCity.getText().trim());
-                student.setGroup(tfGroup.getText().trim());
-
-                return true;
+            String name = tfName.getText().trim();
+            String surname = tfSurname.getText().trim();
+            String patronymic = tfPatronymic.getText().trim();
+            String ageText = tfAge.getText().trim();
+            String city = tfCity.getText().trim();
+            String group = tfGroup.getText().trim();
 
-            } catch (IllegalArgumentException ex) {
-                lblLog.setText("Ошибка: " + ex.getMessage());
-                showAlert("Ошибка валидации", ex.getMessage());
-            } catch (Exception ex) {
-                lblLog.setText("Неизвестная ошибка: " + ex.getMessage());
-                showAlert("Ошибка", "Произошла неизвестная ошибка: " + ex.getMessage());
+            // Валидация введенных данных
+            StudentEvents.Validation check = new StudentEvents.Validation();
+            check.start();
+            StudentValidator.Violation violation =
+                    StudentValidator.validate(name, surname, patronymic, ageText, city, group);
+            check.rows = 1;
+            check.violation = violation != null ? violation.name() : null;
+            check.finish();
+            if (violation != null) {
+                lblLog.setText("Ошибка: " + violation.message());
+                showAlert("Ошибка валидации", violation.message());
+                return false;
             }
+
+            // Сохранение данных если все проверки пройдены
+            student.setName(name);
+            student.setSurname(surname);
+            student.setPatronymic(patronymic);
+            student.setAge(StudentValidator.parseAge(ageText));
+            student.setCity(city);
+            student.setGroup(group);
+            return true;
         }
         return false;
     }
     //-----------------------------------------------------------------------------------------------------------
     /**
      * Настраивает валидацию для поля ввода
+     * @param field поле ввода
+     * @param rule проверяемое поле студента, задающее допустимые символы и подсказку
      */
-    private void setupFieldValidation(TextField field, String regex, String errorMessage) {
+    private void setupFieldValidation(TextField field, StudentValidator.Field rule) {
         field.textProperty().addListener((observable, oldValue, newValue) -> {
-            if (!newValue.isEmpty() && !newValue.matches(regex)) {
+            if (!rule.allows(newValue) && checksCharacters(field)) {
                 field.setStyle("-fx-border-color: red; -fx-border-width: 2px;");
-                lblLog.setText(errorMessage);
+                lblLog.setText(rule.hint());
             } else {
                 field.setStyle("");
             }
@@ -512,15 +1066,45 @@ public class Main extends Application implements Initializable {
     //-----------------------------------------------------------------------------------------------------------
     /**
      * Внутренний класс, представляющий студента.
-     * Использует JavaFX Properties для совместимости с TableView.
+     * Компактная строка таблицы: значения хранятся в обычных полях, город и группа —
+     * кодами в общих словарях, а JavaFX Properties для TableView создаются лениво,
+     * только когда их запрашивает видимая ячейка или редактирование.
+     * Об изменении любого поля студент сообщает как {@link Observable},
+     * что позволяет использовать его в extractor списка без создания свойств.
+     *
+     * Оценка памяти на строку (64-бит JVM, сжатые ссылки; фамилия 7, имя 6,
+     * отчество 10, город 7, группа 10 символов кириллицей):
+     * <pre>
+     *                                    прежний Student   компактный Student
+     *   объект Student                          40 байт              56 байт
+     *   6 Simple*Property (по 40 байт)         240 байт     0 (создаются лениво)
+     *   строки фамилии, имени, отчества        176 байт             176 байт
+     *   строки города и группы                 120 байт     0 (общий словарь)
+     *   итого                                 ~576 байт            ~232 байт
+     * </pre>
+     * Для строк, показанных в таблице, добавляется 40 байт на набор свойств
+     * и по 40 байт на каждое запрошенное свойство.
      */
-    public static class Student {
-        private final StringProperty name = new SimpleStringProperty();
-        private final StringProperty surname = new SimpleStringProperty();
-        private final StringProperty patronymic = new SimpleStringProperty();
-        private final IntegerProperty age = new SimpleIntegerProperty();
-        private final StringProperty city = new SimpleStringProperty();
-        private final StringProperty group = new SimpleStringProperty();
+    public static class Student implements Observable {
+        // Словари повторяющихся значений города и группы
+        private static final StringDictionary CITIES = new StringDictionary();
+        private static final StringDictionary GROUPS = new StringDictionary();
+
+        private String name;
+        private String surname;
+        private String patronymic;
+        private int age;
+        private int cityCode;
+        private int groupCode;
+        // Свойства JavaFX, создаются при первом обращении
+        private Properties properties;
+        // Слушатель изменений: InvalidationListener или массив слушателей
+        private Object listeners;
+        // Ключи сортировки StudentSortKeys, вычисляются лениво
+        StudentSortKeys.Keys sortKeys;
+        // Версия для оптимистичной блокировки, изменяется StudentStore под блокировкой полосы.
+        // Объект: заголовок 12 + 6 ссылок по 4 + 4 int по 4 = 52 байта, с выравниванием 56
+        int version;
 
         /**
          * Конструктор по умолчанию.
@@ -540,38 +1124,166 @@ public class Main extends Application implements Initializable {
          * @param group учебная группа
          */
         public Student(String name, String surname, String patronymic, int age, String city, String group) {
-            this.name.set(name);
-            this.surname.set(surname);
-            this.patronymic.set(patronymic);
-            this.age.set(age);
-            this.city.set(city);
-            this.group.set(group);
+            this.name = name;
+            this.surname = surname;
+            this.patronymic = patronymic;
+            this.age = age;
+            this.cityCode = CITIES.intern(city);
+            this.groupCode = GROUPS.intern(group);
         }
 
-        // Геттеры, сеттеры и свойства для всех полей класса
-        public String getName() { return name.get(); }
-        public void setName(String value) { name.set(value); }
-        public StringProperty nameProperty() { return name; }
+        // Геттеры, сеттеры и свойства для всех полей класса.
+        // Если свойство уже создано, значение хранится в нем.
+        public String getName() { return properties != null && properties.name != null ? properties.name.get() : name; }
+        public void setName(String value) {
+            if (properties != null && properties.name != null) properties.name.set(value); else { name = value; fireChanged(); }
+        }
+        public StringProperty nameProperty() {
+            Properties p = props();
+            if (p.name == null) p.name = track(new SimpleStringProperty(this, "name", name));
+            return p.name;
+        }
 
-        public String getSurname() { return surname.get(); }
-        public void setSurname(String value) { surname.set(value); }
-        public StringProperty surnameProperty() { return surname; }
+        public String getSurname() { return properties != null && properties.surname != null ? properties.surname.get() : surname; }
+        public void setSurname(String value) {
+            if (properties != null && properties.surname != null) properties.surname.set(value); else { surname = value; fireChanged(); }
+        }
+        public StringProperty surnameProperty() {
+            Properties p = props();
+            if (p.surname == null) p.surname = track(new SimpleStringProperty(this, "surname", surname));
+            return p.surname;
+        }
 
-        public String getPatronymic() { return patronymic.get(); }
-        public void setPatronymic(String value) { patronymic.set(value); }
-        public StringProperty patronymicProperty() { return patronymic; }
+        public String getPatronymic() { return properties != null && properties.patronymic != null ? properties.patronymic.get() : patronymic; }
+        public void setPatronymic(String value) {
+            if (properties != null && properties.patronymic != null) properties.patronymic.set(value); else { patronymic = value; fireChanged(); }
+        }
+        public StringProperty patronymicProperty() {
+            Properties p = props();
+            if (p.patronymic == null) p.patronymic = track(new SimpleStringProperty(this, "patronymic", patronymic));
+            return p.patronymic;
+        }
 
-        public int getAge() { return age.get(); }
-        public void setAge(int value) { age.set(value); }
-        public IntegerProperty ageProperty() { return age; }
+        public int getAge() { return properties != null && properties.age != null ? properties.age.get() : age; }
+        public void setAge(int value) {
+            if (properties != null && properties.age != null) properties.age.set(value); else { age = value; fireChanged(); }
+        }
+        public IntegerProperty ageProperty() {
+            Properties p = props();
+            if (p.age == null) p.age = track(new SimpleIntegerProperty(this, "age", age));
+            return p.age;
+        }
 
-        public String getCity() { return city.get(); }
-        public void setCity(String value) { city.set(value); }
-        public StringProperty cityProperty() { return city; }
+        public String getCity() { return properties != null && properties.city != null ? properties.city.get() : CITIES.get(cityCode); }
+        public void setCity(String value) {
+            if (properties != null && properties.city != null) properties.city.set(value); else { cityCode = CITIES.intern(value); fireChanged(); }
+        }
+        public StringProperty cityProperty() {
+            Properties p = props();
+            if (p.city == null) p.city = track(new SimpleStringProperty(this, "city", CITIES.get(cityCode)));
+            return p.city;
+        }
 
-        public String getGroup() { return group.get(); }
-        public void setGroup(String value) { group.set(value); }
-        public StringProperty groupProperty() { return group; }
+        public String getGroup() { return properties != null && properties.group != null ? properties.group.get() : GROUPS.get(groupCode); }
+        public void setGroup(String value) {
+            if (properties != null && properties.group != null) properties.group.set(value); else { groupCode = GROUPS.intern(value); fireChanged(); }
+        }
+        public StringProperty groupProperty() {
+            Properties p = props();
+            if (p.group == null) p.group = track(new SimpleStringProperty(this, "group", GROUPS.get(groupCode)));
+            return p.group;
+        }
+
+        /**
+         * Переносит значения отличающихся полей из values с одним оповещением
+         * слушателей студента вместо оповещения на каждое поле
+         * (список с extractor ищет студента по всему списку при каждом оповещении).
+         * Слушатели созданных свойств оповещаются как обычно.
+         * @return true, если хотя бы одно поле изменилось
+         */
+        boolean setValues(Student values) {
+            Object current = listeners;
+            listeners = null;
+            boolean changed = false;
+            try {
+                if (!Objects.equals(getName(), values.getName())) { setName(values.getName()); changed = true; }
+                if (!Objects.equals(getSurname(), values.getSurname())) { setSurname(values.getSurname()); changed = true; }
+                if (!Objects.equals(getPatronymic(), values.getPatronymic())) { setPatronymic(values.getPatronymic()); changed = true; }
+                if (getAge() != values.getAge()) { setAge(values.getAge()); changed = true; }
+                if (!Objects.equals(getCity(), values.getCity())) { setCity(values.getCity()); changed = true; }
+                if (!Objects.equals(getGroup(), values.getGroup())) { setGroup(values.getGroup()); changed = true; }
+            } finally {
+                listeners = current;
+            }
+            if (changed) {
+                fireChanged();
+            }
+            return changed;
+        }
+
+        @Override
+        public void addListener(InvalidationListener listener) {
+            if (listeners == null) {
+                listeners = listener;
+            } else if (listeners instanceof InvalidationListener single) {
+                listeners = new InvalidationListener[]{single, listener};
+            } else {
+                InvalidationListener[] array = (InvalidationListener[]) listeners;
+                InvalidationListener[] grown = Arrays.copyOf(array, array.length + 1);
+                grown[array.length] = listener;
+                listeners = grown;
+            }
+        }
+
+        @Override
+        public void removeListener(InvalidationListener listener) {
+            if (listeners == listener) {
+                listeners = null;
+            } else if (listeners instanceof InvalidationListener[] array) {
+                for (int i = 0; i < array.length; i++) {
+                    if (array[i] == listener) {
+                        InvalidationListener[] shrunk = new InvalidationListener[array.length - 1];
+                        System.arraycopy(array, 0, shrunk, 0, i);
+                        System.arraycopy(array, i + 1, shrunk, i, array.length - i - 1);
+                        listeners = shrunk.length == 1 ? shrunk[0] : shrunk;
+                        return;
+                    }
+                }
+            }
+        }
+
+        // Оповещает слушателей об изменении одного из полей
+        private void fireChanged() {
+            Object current = listeners;
+            if (current instanceof InvalidationListener single) {
+                single.invalidated(this);
+            } else if (current instanceof InvalidationListener[] array) {
+                for (InvalidationListener l : array) {
+                    l.invalidated(this);
+                }
+            }
+        }
+
+        // Изменения созданного свойства передаются слушателям студента
+        private <T extends Property<?>> T track(T property) {
+            property.addListener(o -> fireChanged());
+            return property;
+        }
+
+        private Properties props() {
+            if (properties == null) {
+                properties = new Properties();
+            }
+            return properties;
+        }
+
+        /**
+         * Лениво создаваемые свойства студента
+         */
+        private static final class Properties {
+            StringProperty name, surname, patronymic, city, group;
+            IntegerProperty age;
+        }
 
         /**
          * Возвращает строковое представление студента.
@@ -580,8 +1292,29 @@ public class Main extends Application implements Initializable {
         @Override
         public String toString() {
             return String.format("%s %s %s, %d лет, %s, группа %s",
-                    surname.get(), name.get(), patronymic.get(), age.get(), city.get(), group.get());
+                    getSurname(), getName(), getPatronymic(), getAge(), getCity(), getGroup());
+        }
+    }
+
+    /**
+     * Завершение приложения: дожидается записи журнала изменений.
+     */
+    @Override
+    public void stop() {
+        // Незавершенный импорт откатывается до закрытия журнала
+        cancelLoad();
+        if (httpServer != null) {
+            httpServer.close();
+        }
+        if (fileWatcher != null) {
+            try {
+                fileWatcher.close();
+            } catch (IOException ignored) {
+                // Приложение завершается
+            }
         }
+        closePaged();
+        repository.close();
     }
 
     /**
@@ -0,0 +1,118 @@
+package com.example.demo1;
+
+import javafx.collections.ObservableListBase;
+
+import java.util.Arrays;
+
+/**
+ * Список для таблицы в постраничном режиме: все студенты {@link PagedStudentSource}
+ * или результат поиска (идентификаторы найденных студентов). Элементы не хранятся
+ * в списке, а запрашиваются у источника по мере отрисовки строк таблицы.
+ *
+ * Изменения списка (set, add в конец, remove) передаются источнику, который
+ * записывает их в журнал, и сообщаются таблице как изменения одной строки.
+ * Новый поиск или сброс создают новый список; одновременно изменяется только
+ * список, показанный в таблице. Используется в потоке JavaFX.
+ */
+final class PagedStudentList extends ObservableListBase<Main.Student> {
+
+    private final PagedStudentSource source;
+    // Условие поиска или null для всего списка
+    private final StudentSearchIndex.Criteria criteria;
+    // Идентификаторы найденных студентов в порядке результата поиска; используются только при поиске
+    private int[] ids;
+    private int size;
+
+    /**
+     * Список всех студентов источника
+     */
+    PagedStudentList(PagedStudentSource source) {
+        this.source = source;
+        this.criteria = null;
+    }
+
+    /**
+     * Результат поиска; студенты, удаленные после начала поиска, пропускаются
+     * @param ids идентификаторы найденных студентов в порядке результата, см. {@link PagedStudentSource#search}
+     */
+    PagedStudentList(PagedStudentSource source, StudentSearchIndex.Criteria criteria, int[] ids) {
+        this.source = source;
+        this.criteria = criteria;
+        this.ids = ids;
+        for (int id : ids) {
+            if (!source.isDeleted(id)) {
+                ids[size++] = id;
+            }
+        }
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    @Override
+    public Main.Student get(int index) {
+        return source.student(idAt(index));
+    }
+
+    @Override
+    public int size() {
+        return criteria == null ? source.size() : size;
+    }
+
+    private int idAt(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        return criteria == null ? source.idAt(index) : ids[index];
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Заменяет значения полей студента
+     * @param values новые значения; объект становится студентом списка
+     * @return прежний объект студента
+     */
+    @Override
+    public Main.Student set(int index, Main.Student values) {
+        Main.Student old = source.update(idAt(index), values);
+        beginChange();
+        nextSet(index, old);
+        endChange();
+        return old;
+    }
+
+    /**
+     * Добавляет студента в конец списка; результат поиска показывает его,
+     * если он удовлетворяет условию
+     */
+    @Override
+    public void add(int index, Main.Student s) {
+        if (index != size()) {
+            throw new UnsupportedOperationException("Студенты добавляются только в конец списка");
+        }
+        int id = source.add(s);
+        if (criteria != null) {
+            if (!criteria.matches(s)) {
+                return;
+            }
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(16, size * 2));
+            }
+            ids[size++] = id;
+        }
+        beginChange();
+        nextAdd(index, index + 1);
+        endChange();
+    }
+
+    @Override
+    public Main.Student remove(int index) {
+        int id = idAt(index);
+        Main.Student old = source.student(id);
+        source.delete(id);
+        if (criteria != null) {
+            System.arraycopy(ids, index + 1, ids, index, size - index - 1);
+            size--;
+        }
+        beginChange();
+        nextRemove(index, old);
+        endChange();
+        return old;
+    }
+}
@@ -0,0 +1,473 @@
+package com.example.demo1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+
+/**
+ * Постраничный доступ к файлу данных, не помещающемуся в память
+ * (-Dstudents.paged=true). Вместо загрузки всех студентов файл один раз
+ * просматривается и запоминаются смещения начала страниц по {@link #PAGE_SIZE}
+ * корректных строк; страницы читаются с диска по мере прокрутки таблицы и хранятся
+ * в ограниченном по памяти кэше {@link StudentPageCache}. Память занимают только
+ * смещения страниц (8 байт на страницу), кэш и изменения.
+ *
+ * Студент обозначается постоянным идентификатором: номер корректной строки файла,
+ * а для добавленных — продолжение нумерации после последней строки. Позиция
+ * в списке — идентификатор за вычетом удаленных перед ним. Изменения хранятся
+ * в памяти поверх файла и записываются в тот же журнал, что и в обычном режиме,
+ * с позициями в списке, поэтому обычная загрузка применяет их так же.
+ * Журнал при этом не сворачивается: это сделает следующий запуск в обычном режиме.
+ *
+ * Чтение страниц и изменения выполняются в потоке JavaFX; поиск просматривает файл
+ * в фоновых потоках по снимку изменений, взятому под блокировкой чтения.
+ * Сжатый файл не поддерживается: к его строкам нет доступа по смещению.
+ */
+final class PagedStudentSource implements Closeable {
+
+    static final int PAGE_SIZE = 1_000;
+    // Страниц, просматриваемых одним потоком поиска за одно чтение
+    private static final int SEARCH_BLOCK_PAGES = 64;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    // Смещения начала страниц; последний элемент — размер файла
+    private final long[] pageOffsets;
+    private final int fileRows;
+    private final StudentPageCache cache;
+    private final StudentJournal journal;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Измененные студенты файла по идентификатору
+    private final Map<Integer, Main.Student> changed = new HashMap<>();
+    // Добавленные студенты, идентификатор — fileRows + индекс
+    private final List<Main.Student> added = new ArrayList<>();
+    // Удаленные идентификаторы по возрастанию
+    private int[] deleted = new int[16];
+    private int deletedCount;
+
+    private PagedStudentSource(Path dataPath, long[] pageOffsets, int fileRows, long cacheBytes,
+                               Consumer<String> errorHandler) throws IOException {
+        this.channel = FileChannel.open(dataPath, StandardOpenOption.READ);
+        this.pageOffsets = pageOffsets;
+        this.fileRows = fileRows;
+        this.cache = new StudentPageCache(cacheBytes);
+        this.journal = new StudentJournal(dataPath, errorHandler, (size, crc) -> { });
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Строит индекс страниц файла данных и применяет журнал изменений.
+     * Выполняется в фоновом потоке; источник передается в поток JavaFX после возврата.
+     * @param dataPath текстовый файл данных
+     * @param cacheBytes объем памяти кэша страниц
+     * @param errorHandler получатель ошибок записи журнала, вызывается в потоке журнала
+     * @param sink получатель прогресса и ошибок разбора, проверяется на отмену; пачки не передаются
+     * @return источник или null, если просмотр отменен
+     */
+    static PagedStudentSource open(Path dataPath, long cacheBytes, Consumer<String> errorHandler,
+                                   StudentFileLoader.Sink sink) throws IOException {
+        if (StudentFileFormat.isCompressed(dataPath)) {
+            throw new IOException("постраничный режим недоступен для сжатого файла " + dataPath.getFileName());
+        }
+        long total = Files.size(dataPath);
+        Indexer indexer = new Indexer();
+        CRC32 crc = new CRC32();
+        byte[] buf = new byte[BUFFER_SIZE];
+        long position = 0;
+        try (InputStream in = Files.newInputStream(dataPath)) {
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                if (sink.isCancelled()) {
+                    return null;
+                }
+                crc.update(buf, 0, n);
+                indexer.accept(buf, n, position);
+                position += n;
+                sink.progress(position, total);
+            }
+        }
+        indexer.finish();
+        if (indexer.errors > 0) {
+            sink.error("Строк с ошибками пропущено: " + indexer.errors);
+        }
+        long[] offsets = Arrays.copyOf(indexer.offsets, indexer.pages + 1);
+        offsets[indexer.pages] = position;
+
+        PagedStudentSource source = new PagedStudentSource(dataPath, offsets, indexer.rows, cacheBytes, errorHandler);
+        source.replay(StudentJournal.readRecords(StudentJournal.journalPathFor(dataPath), position, crc.getValue()));
+        source.journal.open(position, crc.getValue());
+        return source;
+    }
+
+    /**
+     * Разбивка потока байтов файла на строки с запоминанием смещений начала страниц
+     */
+    private static final class Indexer {
+        long[] offsets = new long[16];
+        int pages;
+        int rows;
+        int errors;
+        private byte[] line = new byte[256];
+        private int lineLength;
+        private long lineStart;
+
+        void accept(byte[] buf, int n, long position) {
+            for (int i = 0; i < n; i++) {
+                if (buf[i] == '\n') {
+                    endLine();
+                    lineStart = position + i + 1;
+                } else {
+                    if (lineLength == line.length) {
+                        line = Arrays.copyOf(line, lineLength * 2);
+                    }
+                    line[lineLength++] = buf[i];
+                }
+            }
+        }
+
+        void finish() {
+            if (lineLength > 0) {
+                endLine();
+            }
+        }
+
+        private void endLine() {
+            if (parse(line, 0, lineLength) != null) {
+                if (rows % PAGE_SIZE == 0) {
+                    if (pages == offsets.length) {
+                        offsets = Arrays.copyOf(offsets, pages * 2);
+                    }
+                    offsets[pages++] = lineStart;
+                }
+                rows++;
+            } else if (lineLength > 0) {
+                errors++;
+            }
+            lineLength = 0;
+        }
+    }
+
+    /**
+     * Применяет записи журнала без повторной записи в журнал
+     */
+    private void replay(List<String[]> records) {
+        for (String[] r : records) {
+            switch (r[0]) {
+                case "A" -> add(recordStudent(r, 1), false);
+                case "U" -> {
+                    int position = Integer.parseInt(r[1]);
+                    if (position < size()) {
+                        update(idAt(position), recordStudent(r, 2), false);
+                    }
+                }
+                case "D" -> {
+                    int position = Integer.parseInt(r[1]);
+                    if (position < size()) {
+                        delete(idAt(position), false);
+                    }
+                }
+                default -> { }
+            }
+        }
+    }
+
+    private static Main.Student recordStudent(String[] r, int from) {
+        return new Main.Student(r[from + 1], r[from], r[from + 2],
+                Integer.parseInt(r[from + 3]), r[from + 4], r[from + 5]);
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /** @return количество студентов с учетом изменений */
+    int size() {
+        return fileRows + added.size() - deletedCount;
+    }
+
+    /**
+     * @param position позиция в списке
+     * @return идентификатор студента
+     */
+    int idAt(int position) {
+        // Число удаленных перед искомым идентификатором: deleted[j] - j не убывает
+        int lo = 0;
+        int hi = deletedCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (deleted[mid] - mid <= position) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return position + lo;
+    }
+
+    /**
+     * @return позиция студента в списке
+     */
+    int positionOf(int id) {
+        int i = Arrays.binarySearch(deleted, 0, deletedCount, id);
+        return id - (i >= 0 ? i : -i - 1);
+    }
+
+    /** @return true, если студент удален */
+    boolean isDeleted(int id) {
+        return Arrays.binarySearch(deleted, 0, deletedCount, id) >= 0;
+    }
+
+    /**
+     * Возвращает студента, читая его страницу с диска при промахе кэша.
+     * Объект студента из файла может пересоздаваться после вытеснения страницы
+     * @param id идентификатор
+     */
+    Main.Student student(int id) {
+        if (id >= fileRows) {
+            return added.get(id - fileRows);
+        }
+        Main.Student s = changed.get(id);
+        if (s != null) {
+            return s;
+        }
+        return cache.get(id / PAGE_SIZE, this::loadPage)[id % PAGE_SIZE];
+    }
+
+    /** @return кэш страниц со счетчиками */
+    StudentPageCache cache() {
+        return cache;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Добавляет студента в конец списка
+     * @return идентификатор добавленного студента
+     */
+    int add(Main.Student s) {
+        return add(s, true);
+    }
+
+    /**
+     * Заменяет значения полей студента
+     * @param values новые значения; объект становится студентом списка
+     * @return прежний объект студента
+     */
+    Main.Student update(int id, Main.Student values) {
+        return update(id, values, true);
+    }
+
+    /**
+     * Удаляет студента
+     */
+    void delete(int id) {
+        delete(id, true);
+    }
+
+    private int add(Main.Student s, boolean log) {
+        if (log) {
+            StudentJournal.Batch batch = new StudentJournal.Batch();
+            batch.add(s);
+            journal.log(batch);
+        }
+        lock.writeLock().lock();
+        try {
+            added.add(s);
+            return fileRows + added.size() - 1;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private Main.Student update(int id, Main.Student values, boolean log) {
+        Main.Student old = student(id);
+        if (log) {
+            StudentJournal.Batch batch = new StudentJournal.Batch();
+            batch.update(positionOf(id), values);
+            journal.log(batch);
+        }
+        lock.writeLock().lock();
+        try {
+            if (id >= fileRows) {
+                added.set(id - fileRows, values);
+            } else {
+                changed.put(id, values);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return old;
+    }
+
+    private void delete(int id, boolean log) {
+        if (log) {
+            StudentJournal.Batch batch = new StudentJournal.Batch();
+            batch.delete(positionOf(id));
+            journal.log(batch);
+        }
+        lock.writeLock().lock();
+        try {
+            int i = -Arrays.binarySearch(deleted, 0, deletedCount, id) - 1;
+            if (deletedCount == deleted.length) {
+                deleted = Arrays.copyOf(deleted, deletedCount * 2);
+            }
+            System.arraycopy(deleted, i, deleted, i + 1, deletedCount - i);
+            deleted[i] = id;
+            deletedCount++;
+            changed.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Ищет студентов просмотром файла в нескольких потоках с учетом изменений,
+     * сделанных до вызова. Вызывается в фоновом потоке.
+     * @param cancelled проверка отмены поиска
+     * @return идентификаторы найденных студентов по возрастанию (при нечетком поиске фамилии —
+     *         по возрастанию расстояния, затем идентификатора) или null, если поиск отменен
+     */
+    int[] search(StudentSearchIndex.Criteria criteria, BooleanSupplier cancelled) {
+        Map<Integer, Main.Student> changedCopy;
+        List<Main.Student> addedCopy;
+        int[] deletedCopy;
+        lock.readLock().lock();
+        try {
+            changedCopy = new HashMap<>(changed);
+            addedCopy = new ArrayList<>(added);
+            deletedCopy = Arrays.copyOf(deleted, deletedCount);
+        } finally {
+            lock.readLock().unlock();
+        }
+        int pages = pageOffsets.length - 1;
+        int blocks = (pages + SEARCH_BLOCK_PAGES - 1) / SEARCH_BLOCK_PAGES;
+        // Найденные студенты: расстояние в старших 32 битах, идентификатор в младших
+        long[][] found = new long[blocks + 1][];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            if (cancelled.getAsBoolean()) {
+                return;
+            }
+            int firstPage = b * SEARCH_BLOCK_PAGES;
+            int lastPage = Math.min(firstPage + SEARCH_BLOCK_PAGES, pages);
+            List<Main.Student> rows;
+            try {
+                rows = readRows(pageOffsets[firstPage], pageOffsets[lastPage], Integer.MAX_VALUE);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            long[] ids = new long[rows.size()];
+            int n = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                int id = firstPage * PAGE_SIZE + i;
+                if (Arrays.binarySearch(deletedCopy, id) < 0) {
+                    Main.Student c = changedCopy.get(id);
+                    int rank = criteria.rank(c != null ? c : rows.get(i));
+                    if (rank >= 0) {
+                        ids[n++] = (long) rank << 32 | id;
+                    }
+                }
+            }
+            found[b] = Arrays.copyOf(ids, n);
+        });
+        if (cancelled.getAsBoolean()) {
+            return null;
+        }
+        long[] tail = new long[addedCopy.size()];
+        int n = 0;
+        for (int i = 0; i < addedCopy.size(); i++) {
+            int current = fileRows + i;
+            if (Arrays.binarySearch(deletedCopy, current) < 0) {
+                int rank = criteria.rank(addedCopy.get(i));
+                if (rank >= 0) {
+                    tail[n++] = (long) rank << 32 | current;
+                }
+            }
+        }
+        found[blocks] = Arrays.copyOf(tail, n);
+        int total = 0;
+        for (long[] ids : found) {
+            total += ids.length;
+        }
+        long[] ranked = new long[total];
+        int pos = 0;
+        for (long[] ids : found) {
+            System.arraycopy(ids, 0, ranked, pos, ids.length);
+            pos += ids.length;
+        }
+        if (criteria.fuzzySurname()) {
+            Arrays.parallelSort(ranked);
+        }
+        int[] result = new int[total];
+        for (int i = 0; i < total; i++) {
+            result[i] = (int) ranked[i];
+        }
+        return result;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Дожидается записи журнала и закрывает файл
+     */
+    @Override
+    public void close() throws IOException {
+        journal.close();
+        channel.close();
+    }
+
+    private Main.Student[] loadPage(int page) throws IOException {
+        return readRows(pageOffsets[page], pageOffsets[page + 1], PAGE_SIZE).toArray(new Main.Student[0]);
+    }
+
+    /**
+     * Читает и разбирает корректные строки файла в диапазоне байтов.
+     * Чтение по смещению не меняет позицию канала, поэтому вызывается из нескольких потоков
+     * @param from смещение начала строки
+     * @param to смещение конца диапазона
+     * @param limit наибольшее количество студентов
+     */
+    private List<Main.Student> readRows(long from, long to, int limit) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) (to - from));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, from + buffer.position()) < 0) {
+                throw new IOException("файл данных изменен после построения индекса страниц");
+            }
+        }
+        byte[] bytes = buffer.array();
+        List<Main.Student> rows = new ArrayList<>(Math.min(limit, PAGE_SIZE));
+        int start = 0;
+        for (int i = 0; i <= bytes.length && rows.size() < limit; i++) {
+            if (i == bytes.length || bytes[i] == '\n') {
+                Main.Student s = parse(bytes, start, i - start);
+                if (s != null) {
+                    rows.add(s);
+                }
+                start = i + 1;
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Разбирает строку файла данных по тем же правилам, что и загрузка
+     * @return студент или null, если строка содержит ошибку
+     */
+    private static Main.Student parse(byte[] bytes, int from, int length) {
+        if (length > 0 && bytes[from + length - 1] == '\r') {
+            length--;
+        }
+        if (length == 0) {
+            return null;
+        }
+        String[] parts = new String(bytes, from, length, StandardCharsets.UTF_8).split(";");
+        if (parts.length != 6 || StudentValidator.validate(parts[1], parts[0], parts[2], parts[3], parts[4], parts[5]) != null) {
+            return null;
+        }
+        return new Main.Student(parts[1], parts[0], parts[2], StudentValidator.parseAge(parts[3]), parts[4], parts[5]);
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.demo1;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Разбор файла студентов по диапазонам байтов для параллельной загрузки.
+ * Файл делится на диапазоны, границы которых выровнены по концу строки,
+ * каждый диапазон читается и разбирается независимо. Поля выделяются
+ * прямым просмотром байтов без String.split и без регулярных выражений.
+ *
+ * Разбор повторяет поведение последовательной загрузки: строки разделяются
+ * символами \n, \r или \r\n, пустые поля в конце строки отбрасываются (как в split),
+ * строка корректна только при шести полях.
+ */
+final class ParallelStudentParser {
+
+    // Границы размера диапазона
+    static final int MIN_RANGE_BYTES = 1 << 20;
+    static final int MAX_RANGE_BYTES = 16 << 20;
+
+    private static final int FIELDS = 6;
+
+    private ParallelStudentParser() {
+    }
+
+    /**
+     * Результат разбора одного диапазона
+     */
+    static final class RangeResult {
+        final List<Main.Student> students = new ArrayList<>();
+        final List<LineError> errors = new ArrayList<>();
+        int lineCount;
+    }
+
+    /**
+     * Ошибка в строке файла
+     * @param line номер строки (внутри диапазона при параллельном разборе), начиная с 1
+     * @param violation нарушение проверки данных или null, если неверен формат строки
+     * @param text содержимое строки
+     */
+    record LineError(long line, StudentValidator.Violation violation, String text) {
+
+        /**
+         * @param lineOffset число строк файла перед диапазоном (0 для номера строки в файле)
+         * @return сообщение об ошибке для пользователя
+         */
+        String message(long lineOffset) {
+            long lineNumber = lineOffset + line;
+            if (violation == null) {
+                return "Некорректный формат строки " + lineNumber + ": " + text;
+            }
+            return "Ошибка в данных файла: " + violation.message() + " в строке " + lineNumber + ": " + text;
+        }
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Делит файл на диапазоны, выровненные по концу строки.
+     * @param channel открытый файл
+     * @param size размер файла в байтах
+     * @param parallelism число потоков разбора
+     * @return список диапазонов {начало, конец} в порядке следования в файле
+     */
+    static List<long[]> split(FileChannel channel, long size, int parallelism) throws IOException {
+        long target = Math.max(MIN_RANGE_BYTES, Math.min(MAX_RANGE_BYTES, size / (parallelism * 4L)));
+        List<long[]> ranges = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long start = 0;
+        while (start < size) {
+            long end = start + target;
+            if (end >= size) {
+                end = size;
+            } else {
+                end = nextLineStart(channel, end, size, probe);
+            }
+            ranges.add(new long[]{start, end});
+            start = end;
+        }
+        return ranges;
+    }
+
+    // Позиция сразу после ближайшего символа \n, начиная с from
+    private static long nextLineStart(FileChannel channel, long from, long size, ByteBuffer probe) throws IOException {
+        long pos = from;
+        while (pos < size) {
+            probe.clear();
+            int n = channel.read(probe, pos);
+            if (n <= 0) {
+                break;
+            }
+            for (int i = 0; i < n; i++) {
+                if (probe.get(i) == '\n') {
+                    return pos + i + 1;
+                }
+            }
+            pos += n;
+        }
+        return size;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Читает и разбирает диапазон файла.
+     * Метод безопасно вызывать из нескольких потоков для одного канала.
+     * @param channel открытый файл
+     * @param range диапазон {начало, конец}
+     * @return студенты и ошибки диапазона в порядке следования строк
+     */
+    static RangeResult parse(FileChannel channel, long[] range) throws IOException {
+        int length = (int) (range[1] - range[0]);
+        byte[] buf = new byte[length];
+        ByteBuffer bb = ByteBuffer.wrap(buf);
+        while (bb.hasRemaining()) {
+            if (channel.read(bb, range[0] + bb.position()) < 0) {
+                break;
+            }
+        }
+
+        RangeResult result = new RangeResult();
+        int[] bounds = new int[FIELDS * 2];
+        int pos = 0;
+        while (pos < length) {
+            int end = pos;
+            while (end < length && buf[end] != '\n' && buf[end] != '\r') {
+                end++;
+            }
+            result.lineCount++;
+            parseLine(buf, pos, end, bounds, result);
+
+            // Пропуск разделителя строк: \n, \r или \r\n
+            pos = end + 1;
+            if (end < length && buf[end] == '\r' && pos < length && buf[pos] == '\n') {
+                pos++;
+            }
+        }
+        return result;
+    }
+
+    private static void parseLine(byte[] buf, int from, int to, int[] bounds, RangeResult result) {
+        // Поиск границ полей; пустые поля в конце строки не учитываются, как в String.split
+        int fieldCount = 0;
+        int nonEmptyCount = 0;
+        int fieldStart = from;
+        for (int i = from; i <= to; i++) {
+            if (i == to || buf[i] == ';') {
+                if (fieldCount < FIELDS) {
+                    bounds[fieldCount * 2] = fieldStart;
+                    bounds[fieldCount * 2 + 1] = i;
+                }
+                fieldCount++;
+                if (i > fieldStart) {
+                    nonEmptyCount = fieldCount;
+                }
+                fieldStart = i + 1;
+            }
+        }
+        if (nonEmptyCount != FIELDS) {
+            result.errors.add(new LineError(result.lineCount, null, decode(buf, from, to)));
+            return;
+        }
+
+        String surname = field(buf, bounds, 0);
+        String name = field(buf, bounds, 1);
+        String patronymic = field(buf, bounds, 2);
+        String city = field(buf, bounds, 4);
+        String group = field(buf, bounds, 5);
+        int age = parseAge(buf, bounds[6], bounds[7]);
+
+        StudentValidator.Violation violation =
+                StudentValidator.validate(name, surname, patronymic, age, city, group);
+        if (violation != null) {
+            result.errors.add(new LineError(result.lineCount, violation, decode(buf, from, to)));
+            return;
+        }
+        result.students.add(new Main.Student(name, surname, patronymic, age, city, group));
+    }
+
+    private static String field(byte[] buf, int[] bounds, int index) {
+        return decode(buf, bounds[index * 2], bounds[index * 2 + 1]);
+    }
+
+    private static String decode(byte[] buf, int from, int to) {
+        return new String(buf, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Разбирает возраст прямо из байтов, если поле состоит из ASCII символов;
+     * иначе поле декодируется и разбирается по общим правилам
+     */
+    private static int parseAge(byte[] buf, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buf[i] < 0) {
+                return StudentValidator.parseAge(decode(buf, from, to));
+            }
+        }
+        return StudentValidator.parseAge(new AsciiSequence(buf, from, to));
+    }
+
+    /**
+     * Представление ASCII байтов как CharSequence без копирования
+     */
+    private record AsciiSequence(byte[] buf, int from, int to) implements CharSequence {
+        @Override
+        public int length() {
+            return to - from;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) buf[from + index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new AsciiSequence(buf, from + start, from + end);
+        }
+
+        @Override
+        public String toString() {
+            return new String(buf, from, to - from, StandardCharsets.US_ASCII);
+        }
+    }
+}
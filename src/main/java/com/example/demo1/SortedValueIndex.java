@@ -0,0 +1,116 @@
+package com.example.demo1;
+
+import java.util.Arrays;
+
+/**
+ * Индекс целочисленного поля (возраст) для запросов по диапазону.
+ * Пары (значение, идентификатор) упакованы в long и хранятся отсортированным
+ * массивом примитивов, поэтому диапазон находится двумя двоичными поисками.
+ *
+ * Добавленные пары сначала копятся в несортированном хвосте массива и вливаются
+ * в отсортированную часть в {@link #flush} — одним слиянием на пачку изменений,
+ * а не сдвигом массива на каждую добавленную запись.
+ */
+final class SortedValueIndex {
+
+    private long[] keys = new long[16];
+    // Длина отсортированной части; за ней до size — несортированный хвост
+    private int sorted;
+    private int size;
+
+    /**
+     * Добавляет запись; до {@link #flush} запись не видна в {@link #range}
+     */
+    void add(int id, int value) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+        }
+        keys[size++] = pack(value, id);
+    }
+
+    /**
+     * Удаляет запись
+     * @param value значение, с которым запись была добавлена
+     */
+    void remove(int id, int value) {
+        long key = pack(value, id);
+        int pos = Arrays.binarySearch(keys, 0, sorted, key);
+        if (pos >= 0) {
+            System.arraycopy(keys, pos + 1, keys, pos, size - pos - 1);
+            sorted--;
+            size--;
+            return;
+        }
+        for (int i = sorted; i < size; i++) {
+            if (keys[i] == key) {
+                keys[i] = keys[--size];
+                return;
+            }
+        }
+    }
+
+    /**
+     * Удаляет все записи
+     */
+    void clear() {
+        sorted = 0;
+        size = 0;
+    }
+
+    /**
+     * Вливает накопленные записи в отсортированную часть
+     */
+    void flush() {
+        if (sorted == size) {
+            return;
+        }
+        Arrays.sort(keys, sorted, size);
+        if (sorted > 0 && keys[sorted - 1] > keys[sorted]) {
+            long[] merged = new long[Math.max(keys.length, size)];
+            int i = 0, j = sorted, n = 0;
+            while (i < sorted || j < size) {
+                merged[n++] = j == size || (i < sorted && keys[i] < keys[j]) ? keys[i++] : keys[j++];
+            }
+            keys = merged;
+        }
+        sorted = size;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Находит записи со значением в диапазоне [min, max]
+     * @return идентификаторы по возрастанию
+     */
+    int[] range(int min, int max) {
+        if (min > max) {
+            return new int[0];
+        }
+        int from = bound(pack(min, 0), false);
+        int to = bound(pack(max, -1), true);
+        int[] ids = new int[to - from];
+        for (int i = from; i < to; i++) {
+            ids[i - from] = (int) keys[i];
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    // Первая позиция отсортированной части с ключом не меньше key (afterEqual — больше key)
+    private int bound(long key, boolean afterEqual) {
+        int lo = 0;
+        int hi = sorted;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid] < key || (afterEqual && keys[mid] == key)) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Значение в старших 32 битах, идентификатор (неотрицательный) — в младших
+    private static long pack(int value, int id) {
+        return ((long) value << 32) | (id & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.demo1;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Словарь строк: каждому различному значению выдается постоянный целый код.
+ * Используется для часто повторяющихся полей (город, группа), чтобы строка
+ * хранила в памяти один раз, а строки таблицы хранили только код.
+ *
+ * Коды не освобождаются, и словарь не очищается при очистке или перезагрузке
+ * списка: код хранит каждый экземпляр студента, в том числе вне списка
+ * (открытый диалог правки, выгрузка, импорт, страницы постраничного режима),
+ * и после сброса такой код указывал бы на другое значение. Поэтому словарь
+ * растет все время работы процесса и хранит каждое значение, которое когда-либо
+ * встречалось, включая удаленные и исправленные опечатки. Он рассчитан на поля
+ * с небольшим числом значений (тысячи городов и групп — десятки килобайт);
+ * для полей с уникальными значениями, например фамилий, он не подходит.
+ * Безопасен для одновременного использования из нескольких потоков.
+ */
+final class StringDictionary {
+
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[64];
+    private int size;
+
+    /**
+     * Возвращает код значения, добавляя значение в словарь при первом обращении
+     * @param value строка (null хранится как пустая строка)
+     * @return код значения
+     */
+    int intern(String value) {
+        if (value == null) {
+            value = "";
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        synchronized (this) {
+            code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            String[] current = values;
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size * 2);
+            }
+            current[size] = value;
+            values = current;
+            codes.put(value, size);
+            return size++;
+        }
+    }
+
+    /**
+     * @param code код, ранее выданный {@link #intern}
+     * @return значение с этим кодом
+     */
+    String get(int code) {
+        return values[code];
+    }
+
+    /**
+     * @return количество различных значений
+     */
+    synchronized int size() {
+        return size;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.demo1;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Построчное сравнение двух версий списка студентов.
+ * Общие начало и конец списков отбрасываются сразу, оставшаяся середина
+ * сравнивается алгоритмом Майерса по хешам строк. Если различий в середине
+ * больше {@link #MAX_EDITS}, середина целиком считается одним измененным блоком,
+ * чтобы время и память сравнения оставались ограниченными.
+ *
+ * Результат — список блоков {@link Hunk}: строки старой версии [oldFrom, oldTo)
+ * заменяются строками новой версии [newFrom, newTo). Блоки упорядочены
+ * по возрастанию позиции и не пересекаются.
+ */
+final class StudentDiff {
+
+    // Наибольшее число вставок и удалений, для которого выполняется точное сравнение
+    static final int MAX_EDITS = 1000;
+
+    private StudentDiff() {
+    }
+
+    /**
+     * Блок различий: строки [oldFrom, oldTo) старой версии заменяются строками [newFrom, newTo) новой
+     */
+    record Hunk(int oldFrom, int oldTo, int newFrom, int newTo) {
+        int oldLength() {
+            return oldTo - oldFrom;
+        }
+
+        int newLength() {
+            return newTo - newFrom;
+        }
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Сравнивает две версии списка строк
+     * @param oldLines старая версия
+     * @param newLines новая версия
+     * @return блоки различий, пустой список для одинаковых версий
+     */
+    static List<Hunk> diff(List<String> oldLines, List<String> newLines) {
+        int oldEnd = oldLines.size();
+        int newEnd = newLines.size();
+        int start = 0;
+        while (start < oldEnd && start < newEnd && oldLines.get(start).equals(newLines.get(start))) {
+            start++;
+        }
+        while (oldEnd > start && newEnd > start && oldLines.get(oldEnd - 1).equals(newLines.get(newEnd - 1))) {
+            oldEnd--;
+            newEnd--;
+        }
+        List<Hunk> hunks = new ArrayList<>();
+        if (start == oldEnd && start == newEnd) {
+            return hunks;
+        }
+        if (start == oldEnd || start == newEnd) {
+            hunks.add(new Hunk(start, oldEnd, start, newEnd));
+            return hunks;
+        }
+        List<Hunk> middle = myers(oldLines.subList(start, oldEnd), newLines.subList(start, newEnd));
+        if (middle == null) {
+            hunks.add(new Hunk(start, oldEnd, start, newEnd));
+            return hunks;
+        }
+        for (Hunk h : middle) {
+            hunks.add(new Hunk(h.oldFrom + start, h.oldTo + start, h.newFrom + start, h.newTo + start));
+        }
+        return hunks;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Кратчайший сценарий правки по алгоритму Майерса
+     * @return блоки различий или null, если различий больше {@link #MAX_EDITS}
+     */
+    private static List<Hunk> myers(List<String> a, List<String> b) {
+        int n = a.size();
+        int m = b.size();
+        int[] ha = hashes(a);
+        int[] hb = hashes(b);
+        int max = Math.min(n + m, MAX_EDITS);
+        int offset = max + 1;
+        int[] v = new int[2 * max + 3];
+        // Состояние диагоналей -d..d перед каждым шагом d, для обратного прохода
+        List<int[]> trace = new ArrayList<>();
+        for (int d = 0; d <= max; d++) {
+            trace.add(Arrays.copyOfRange(v, offset - d, offset + d + 1));
+            for (int k = -d; k <= d; k += 2) {
+                int x;
+                if (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) {
+                    x = v[offset + k + 1];
+                } else {
+                    x = v[offset + k - 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && ha[x] == hb[y] && a.get(x).equals(b.get(y))) {
+                    x++;
+                    y++;
+                }
+                v[offset + k] = x;
+                if (x >= n && y >= m) {
+                    return backtrack(trace, n, m);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static List<Hunk> backtrack(List<int[]> trace, int n, int m) {
+        List<Hunk> hunks = new ArrayList<>();
+        int x = n;
+        int y = m;
+        // Конец текущего блока различий или -1, если блок не открыт
+        int hunkOldTo = -1;
+        int hunkNewTo = -1;
+        for (int d = trace.size() - 1; d >= 0; d--) {
+            int[] v = trace.get(d);
+            int k = x - y;
+            int prevK = (k == -d || (k != d && at(v, d, k - 1) < at(v, d, k + 1))) ? k + 1 : k - 1;
+            int prevX = d == 0 ? 0 : at(v, d, prevK);
+            int prevY = prevX - prevK;
+            if (x > prevX && y > prevY && hunkOldTo >= 0) {
+                // Совпадающие строки закрывают открытый блок
+                hunks.add(new Hunk(x, hunkOldTo, y, hunkNewTo));
+                hunkOldTo = -1;
+            }
+            while (x > prevX && y > prevY) {
+                x--;
+                y--;
+            }
+            if (d > 0) {
+                if (hunkOldTo < 0) {
+                    hunkOldTo = x;
+                    hunkNewTo = y;
+                }
+                x = prevX;
+                y = prevY;
+            }
+        }
+        if (hunkOldTo >= 0) {
+            hunks.add(new Hunk(x, hunkOldTo, y, hunkNewTo));
+        }
+        Collections.reverse(hunks);
+        return hunks;
+    }
+
+    // Значение диагонали k из сохраненного состояния шага d (диагонали -d..d)
+    private static int at(int[] v, int d, int k) {
+        return v[k + d];
+    }
+
+    private static int[] hashes(List<String> lines) {
+        int[] h = new int[lines.size()];
+        for (int i = 0; i < h.length; i++) {
+            h[i] = lines.get(i).hashCode();
+        }
+        return h;
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.demo1;
+
+import jdk.jfr.*;
+
+/**
+ * События JDK Flight Recorder для основных операций: загрузки, сохранения,
+ * поиска и проверки данных в диалоге. Каждое событие несет длительность,
+ * количество строк и байтов; при завершении оно также учитывается
+ * в метриках процесса {@link StudentMetrics}.
+ *
+ * Запись без внешнего профилировщика:
+ * {@code -XX:StartFlightRecording=filename=students.jfr} при запуске или
+ * {@code jcmd <pid> JFR.start} для работающего процесса; просмотр —
+ * {@code jfr print --categories Students students.jfr}.
+ *
+ * Порядок использования: создать событие, вызвать {@link Timed#start},
+ * заполнить поля и вызвать {@link Timed#finish} в том же потоке.
+ */
+final class StudentEvents {
+
+    private StudentEvents() {
+    }
+
+    /**
+     * Общая часть событий: замер длительности, строки и байты
+     */
+    abstract static class Timed extends Event {
+        @Label("Строк")
+        long rows;
+
+        @Label("Байт")
+        @DataAmount
+        long bytes;
+
+        private final transient StudentMetrics.Operation operation;
+        private transient long startNanos;
+
+        Timed(StudentMetrics.Operation operation) {
+            this.operation = operation;
+        }
+
+        /**
+         * Начинает замер
+         */
+        void start() {
+            startNanos = System.nanoTime();
+            begin();
+        }
+
+        /**
+         * Завершает замер, записывает событие и учитывает его в метриках
+         */
+        void finish() {
+            end();
+            commit();
+            StudentMetrics.record(operation, System.nanoTime() - startNanos, rows, bytes);
+        }
+    }
+
+    @Name("com.example.demo1.Load")
+    @Label("Загрузка списка")
+    @Category("Students")
+    @StackTrace(false)
+    static final class Load extends Timed {
+        @Label("Источник")
+        @Description("text, parallel или snapshot")
+        String source;
+
+        @Label("Ошибок в строках")
+        int errors;
+
+        @Label("Отменена")
+        boolean cancelled;
+
+        Load() {
+            super(StudentMetrics.Operation.LOAD);
+        }
+    }
+
+    @Name("com.example.demo1.Save")
+    @Label("Сохранение списка")
+    @Category("Students")
+    @StackTrace(false)
+    static final class Save extends Timed {
+        @Label("Способ")
+        @Description("rewrite, journal или compact")
+        String kind;
+
+        Save(String kind) {
+            super(StudentMetrics.Operation.SAVE);
+            this.kind = kind;
+        }
+    }
+
+    @Name("com.example.demo1.Search")
+    @Label("Поиск")
+    @Category("Students")
+    @StackTrace(false)
+    static final class Search extends Timed {
+        @Label("Фамилия")
+        String surname;
+
+        @Label("Группа")
+        String group;
+
+        @Label("Поиск при вводе")
+        boolean live;
+
+        Search(String surname, String group, boolean live) {
+            super(StudentMetrics.Operation.SEARCH);
+            this.surname = surname;
+            this.group = group;
+            this.live = live;
+        }
+    }
+
+    @Name("com.example.demo1.Validation")
+    @Label("Проверка данных в диалоге")
+    @Category("Students")
+    @StackTrace(false)
+    static final class Validation extends Timed {
+        @Label("Нарушение")
+        String violation;
+
+        Validation() {
+            super(StudentMetrics.Operation.VALIDATION);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.example.demo1;
+
+import javafx.concurrent.Task;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Фоновая задача выгрузки студентов по файлам: по одному файлу на группу
+ * или город, в формате файла данных Фамилия;Имя;Отчество;Возраст;Город;Группа.
+ *
+ * Список делится на части по значению поля, части записываются параллельно
+ * в пуле из не более чем {@link #MAX_WRITERS} потоков. Каждый поток один раз
+ * выделяет прямой буфер {@link #BUFFER_SIZE} байт, кодирует в него строки
+ * в UTF-8 без промежуточных строк и пишет заполненный буфер в FileChannel.
+ * Файл пишется во временный и переименовывается после записи, поэтому
+ * при отмене или ошибке в каталоге остаются только целые файлы.
+ *
+ * Прогресс задачи — доля записанных студентов, сообщение — ход выгрузки
+ * и скорость. Результат — итог выгрузки.
+ */
+class StudentExportTask extends Task<StudentExportTask.Result> {
+
+    // Наибольшее количество потоков записи
+    static final int MAX_WRITERS = 4;
+    // Размер прямого буфера потока записи
+    static final int BUFFER_SIZE = 1 << 18;
+    // Период обновления сообщения о ходе выгрузки
+    private static final long PROGRESS_INTERVAL_MILLIS = 200;
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes(StandardCharsets.US_ASCII);
+    // Символы, недопустимые в именах файлов
+    private static final String UNSAFE_NAME_CHARS = "\\/:*?\"<>|";
+
+    /**
+     * Поле, по значению которого студенты делятся на файлы
+     */
+    enum Partition {
+        GROUP("По группам"),
+        CITY("По городам");
+
+        private final String title;
+
+        Partition(String title) {
+            this.title = title;
+        }
+
+        String key(StudentRepository.Row s) {
+            return this == GROUP ? s.group() : s.city();
+        }
+
+        @Override
+        public String toString() {
+            return title;
+        }
+    }
+
+    /**
+     * Итог выгрузки
+     * @param files количество записанных файлов
+     * @param rows количество выгруженных студентов
+     * @param bytes объем записанных файлов
+     * @param seconds продолжительность выгрузки
+     */
+    record Result(int files, long rows, long bytes, double seconds) {
+        /** @return скорость записи в мегабайтах в секунду */
+        double megabytesPerSecond() {
+            return seconds > 0 ? bytes / seconds / (1 << 20) : 0;
+        }
+    }
+
+    private final List<StudentRepository.Row> students;
+    private final Partition partition;
+    private final Path directory;
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final AtomicInteger filesWritten = new AtomicInteger();
+    // Буфер выделяется один раз на поток записи
+    private final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+
+    /**
+     * @param students копии значений выгружаемых студентов в порядке записи в файлы, сделанные
+     *                 в потоке-владельце списка: потоки записи не читают изменяемых студентов
+     * @param partition поле, по которому студенты делятся на файлы
+     * @param directory каталог для файлов; существующие файлы с теми же именами заменяются
+     */
+    StudentExportTask(List<StudentRepository.Row> students, Partition partition, Path directory) {
+        this.students = students;
+        this.partition = partition;
+        this.directory = directory;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Делит список на части и записывает их в пуле потоков, периодически публикуя ход выгрузки.
+     * Прерывается при отмене задачи.
+     * @return итог выгрузки
+     */
+    @Override
+    protected Result call() throws Exception {
+        long startNanos = System.nanoTime();
+        Map<String, List<StudentRepository.Row>> shards = new TreeMap<>();
+        for (StudentRepository.Row s : students) {
+            shards.computeIfAbsent(partition.key(s), k -> new ArrayList<>()).add(s);
+        }
+        Files.createDirectories(directory);
+        Map<String, Path> targets = fileNames(shards.keySet());
+
+        int writers = Math.max(1, Math.min(Math.min(MAX_WRITERS, Runtime.getRuntime().availableProcessors()), shards.size()));
+        ExecutorService pool = Executors.newFixedThreadPool(writers,
+                Thread.ofPlatform().name("students-export-", 0).daemon().factory());
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Map.Entry<String, List<StudentRepository.Row>> shard : shards.entrySet()) {
+                futures.add(pool.submit(() -> {
+                    writeShard(targets.get(shard.getKey()), shard.getValue());
+                    return null;
+                }));
+            }
+            pool.shutdown();
+            while (!pool.awaitTermination(PROGRESS_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                report(shards.size(), startNanos);
+            }
+            for (Future<?> f : futures) {
+                try {
+                    f.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof Exception cause) {
+                        throw cause;
+                    }
+                    throw e;
+                }
+            }
+        } finally {
+            // При отмене прерывает запись: каналы закрываются, временные файлы удаляются
+            pool.shutdownNow();
+        }
+        report(shards.size(), startNanos);
+        return new Result(filesWritten.get(), rowsWritten.sum(), bytesWritten.sum(),
+                (System.nanoTime() - startNanos) / 1e9);
+    }
+
+    private void report(int files, long startNanos) {
+        long rows = rowsWritten.sum();
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        updateProgress(rows, students.size());
+        updateMessage(String.format("Экспорт: %d%%, файлов %d из %d, студентов %d, %d в сек., %.1f МБ/с",
+                students.isEmpty() ? 100 : rows * 100 / students.size(), filesWritten.get(), files, rows,
+                seconds > 0 ? Math.round(rows / seconds) : 0,
+                seconds > 0 ? bytesWritten.sum() / seconds / (1 << 20) : 0.0));
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Записывает студентов одной части во временный файл и переименовывает его
+     */
+    private void writeShard(Path target, List<StudentRepository.Row> shard) throws IOException {
+        Path tmpPath = target.resolveSibling(target.getFileName() + ".tmp");
+        ByteBuffer buf = buffers.get();
+        buf.clear();
+        boolean written = false;
+        try (FileChannel out = FileChannel.open(tmpPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            int pending = 0;
+            for (StudentRepository.Row s : shard) {
+                String surname = s.surname();
+                String name = s.name();
+                String patronymic = s.patronymic();
+                String city = s.city();
+                String group = s.group();
+                // UTF-8 кодирует символ UTF-16 не больше чем тремя байтами
+                int maxBytes = 3 * (surname.length() + name.length() + patronymic.length() + city.length()
+                        + group.length()) + 16 + LINE_SEPARATOR.length;
+                if (buf.remaining() < maxBytes) {
+                    flush(out, buf);
+                    rowsWritten.add(pending);
+                    pending = 0;
+                    if (isCancelled()) {
+                        return;
+                    }
+                }
+                if (buf.remaining() < maxBytes) {
+                    // Строка больше буфера — пишется отдельно
+                    writeFully(out, ByteBuffer.wrap((s.format() + System.lineSeparator())
+                            .getBytes(StandardCharsets.UTF_8)), bytesWritten);
+                } else {
+                    putUtf8(buf, surname);
+                    buf.put((byte) ';');
+                    putUtf8(buf, name);
+                    buf.put((byte) ';');
+                    putUtf8(buf, patronymic);
+                    buf.put((byte) ';');
+                    putInt(buf, s.age());
+                    buf.put((byte) ';');
+                    putUtf8(buf, city);
+                    buf.put((byte) ';');
+                    putUtf8(buf, group);
+                    buf.put(LINE_SEPARATOR);
+                }
+                pending++;
+            }
+            flush(out, buf);
+            rowsWritten.add(pending);
+            written = true;
+        } finally {
+            if (!written) {
+                Files.deleteIfExists(tmpPath);
+            }
+        }
+        Files.move(tmpPath, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        filesWritten.incrementAndGet();
+    }
+
+    private void flush(FileChannel out, ByteBuffer buf) throws IOException {
+        buf.flip();
+        writeFully(out, buf, bytesWritten);
+        buf.clear();
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buf, LongAdder counter) throws IOException {
+        counter.add(buf.remaining());
+        while (buf.hasRemaining()) {
+            out.write(buf);
+        }
+    }
+
+    /**
+     * Кодирует строку в UTF-8; одиночные суррогаты заменяются на '?'
+     */
+    private static void putUtf8(ByteBuffer buf, String s) {
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                buf.put((byte) c);
+            } else if (c < 0x800) {
+                buf.put((byte) (0xC0 | c >> 6));
+                buf.put((byte) (0x80 | c & 0x3F));
+            } else if (!Character.isSurrogate(c)) {
+                buf.put((byte) (0xE0 | c >> 12));
+                buf.put((byte) (0x80 | c >> 6 & 0x3F));
+                buf.put((byte) (0x80 | c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int cp = Character.toCodePoint(c, s.charAt(++i));
+                buf.put((byte) (0xF0 | cp >> 18));
+                buf.put((byte) (0x80 | cp >> 12 & 0x3F));
+                buf.put((byte) (0x80 | cp >> 6 & 0x3F));
+                buf.put((byte) (0x80 | cp & 0x3F));
+            } else {
+                buf.put((byte) '?');
+            }
+        }
+    }
+
+    private static void putInt(ByteBuffer buf, int value) {
+        long v = value;
+        if (v < 0) {
+            buf.put((byte) '-');
+            v = -v;
+        }
+        int digits = 1;
+        for (long t = v; t >= 10; t /= 10) {
+            digits++;
+        }
+        // Цифры записываются с конца числа на свои места
+        int end = buf.position() + digits;
+        for (int p = end - 1; p >= end - digits; p--) {
+            buf.put(p, (byte) ('0' + v % 10));
+            v /= 10;
+        }
+        buf.position(end);
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Подбирает имена файлов по значениям поля: недопустимые символы заменяются
+     * на '_', значения, совпадающие без учета регистра, получают номер
+     */
+    private Map<String, Path> fileNames(Set<String> keys) {
+        Map<String, Path> names = new HashMap<>();
+        Set<String> used = new HashSet<>();
+        for (String key : keys) {
+            StringBuilder sb = new StringBuilder(key.length());
+            for (int i = 0; i < key.length(); i++) {
+                char c = key.charAt(i);
+                sb.append(c < ' ' || UNSAFE_NAME_CHARS.indexOf(c) >= 0 ? '_' : c);
+            }
+            String base = sb.toString().strip();
+            while (base.endsWith(".")) {
+                base = base.substring(0, base.length() - 1);
+            }
+            if (base.isEmpty()) {
+                base = "_";
+            }
+            String name = base;
+            for (int n = 2; !used.add(name.toLowerCase()); n++) {
+                name = base + "-" + n;
+            }
+            names.put(key, directory.resolve(name + ".txt"));
+        }
+        return names;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.demo1;
+
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Формат хранения файла данных: текст UTF-8 или тот же текст, сжатый gzip
+ * ({@code students.txt.gz}). В списке много повторяющихся городов и групп,
+ * поэтому сжатый файл в несколько раз меньше и читается с диска быстрее.
+ *
+ * Формат определяется по содержимому (сигнатура gzip в первых байтах),
+ * а для пустого или отсутствующего файла — по расширению .gz, поэтому
+ * загрузка и сохранение работают с обоими форматами без настройки,
+ * а файл сохраняется в том формате, в котором был прочитан.
+ * Сжатие и распаковка выполняются потоками Deflater/Inflater при чтении
+ * и записи, без буферизации всего файла в памяти.
+ *
+ * Размер и контрольная сумма файла данных (заголовок журнала, снимок,
+ * синхронизация с внешними изменениями) всегда относятся к байтам на диске,
+ * то есть для сжатого файла — к сжатым байтам.
+ */
+final class StudentFileFormat {
+
+    static final String GZIP_SUFFIX = ".gz";
+
+    // Первые байты потока gzip (RFC 1952)
+    private static final int GZIP_MAGIC_1 = 0x1f;
+    private static final int GZIP_MAGIC_2 = 0x8b;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private StudentFileFormat() {
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Выбирает файл данных: существующий текстовый, иначе существующий сжатый,
+     * иначе новый файл в формате, заданном -Dstudents.storage (gzip или text)
+     * @param textPath путь к текстовому файлу данных
+     * @return путь к файлу данных
+     */
+    static Path resolve(Path textPath) {
+        Path gzipPath = gzipPathFor(textPath);
+        if (Files.exists(textPath)) {
+            return textPath;
+        }
+        if (Files.exists(gzipPath) || "gzip".equals(System.getProperty("students.storage"))) {
+            return gzipPath;
+        }
+        return textPath;
+    }
+
+    /**
+     * @return путь к сжатому файлу для указанного текстового файла
+     */
+    static Path gzipPathFor(Path textPath) {
+        return textPath.resolveSibling(textPath.getFileName() + GZIP_SUFFIX);
+    }
+
+    /**
+     * Определяет формат файла по первым байтам, а пустого или отсутствующего — по расширению
+     * @return true, если файл сжат gzip или должен записываться сжатым
+     */
+    static boolean isCompressed(Path path) throws IOException {
+        if (Files.exists(path)) {
+            try (InputStream in = Files.newInputStream(path)) {
+                int b1 = in.read();
+                int b2 = in.read();
+                if (b2 >= 0) {
+                    return b1 == GZIP_MAGIC_1 && b2 == GZIP_MAGIC_2;
+                }
+            }
+        }
+        return path.getFileName().toString().endsWith(GZIP_SUFFIX);
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Открывает поток текста файла данных поверх потока байтов с диска.
+     * Сжатый поток распознается по сигнатуре и распаковывается при чтении.
+     * Распаковщик может не дочитать байты после конца сжатых данных; чтобы
+     * контрольная сумма исходного потока учла весь файл, его нужно дочитать
+     * ({@link InputStream#transferTo} в {@link OutputStream#nullOutputStream}).
+     * @param raw байты файла
+     * @return поток текста UTF-8
+     */
+    static InputStream decode(InputStream raw) throws IOException {
+        BufferedInputStream in = new BufferedInputStream(raw, BUFFER_SIZE);
+        in.mark(2);
+        int b1 = in.read();
+        int b2 = in.read();
+        in.reset();
+        if (b1 == GZIP_MAGIC_1 && b2 == GZIP_MAGIC_2) {
+            return new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        return in;
+    }
+
+    /**
+     * Записывает строки файла данных во временный файл в нужном формате
+     * и сбрасывает его на диск
+     * @param target записываемый файл
+     * @param compressed true — сжимать gzip
+     * @param lines строки без разделителей
+     * @return {размер файла в байтах, CRC32 байтов файла}
+     */
+    static long[] write(Path target, boolean compressed, Iterable<String> lines) throws IOException {
+        CRC32 crc = new CRC32();
+        try (CheckedOutputStream checked = new CheckedOutputStream(Files.newOutputStream(target), crc);
+             OutputStream encoded = compressed ? new GZIPOutputStream(checked, BUFFER_SIZE) : checked;
+             BufferedWriter out = new BufferedWriter(new OutputStreamWriter(encoded, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            for (String line : lines) {
+                out.write(line);
+                out.newLine();
+            }
+        }
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        return new long[]{Files.size(target), crc.getValue()};
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Преобразование файла данных из командной строки:
+     * {@code compress <students.txt>} создает students.txt.gz и удаляет текстовый файл,
+     * {@code decompress <students.txt.gz>} выполняет обратное преобразование.
+     * Журнал изменений относится к прежнему файлу, поэтому перед
+     * преобразованием его нужно свернуть (например, запуском с -Dstudents.persistence=rewrite).
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2 || !(args[0].equals("compress") || args[0].equals("decompress"))) {
+            System.err.println("Использование: compress <students.txt> | decompress <students.txt.gz>");
+            System.exit(2);
+        }
+        Path source = Path.of(args[1]);
+        boolean compress = args[0].equals("compress");
+        String name = source.getFileName().toString();
+        if (!compress && !name.endsWith(GZIP_SUFFIX)) {
+            System.err.println("Имя сжатого файла должно оканчиваться на " + GZIP_SUFFIX);
+            System.exit(2);
+        }
+        Path target = compress
+                ? gzipPathFor(source)
+                : source.resolveSibling(name.substring(0, name.length() - GZIP_SUFFIX.length()));
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                decode(Files.newInputStream(source)), StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            write(tmp, compress, () -> reader.lines().iterator());
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        Files.delete(source);
+        System.out.println("Записан " + target + ", байт: " + Files.size(target));
+    }
+}
@@ -0,0 +1,357 @@
+package com.example.demo1;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Потоковая загрузка студентов из текстового файла без зависимости от потока JavaFX.
+ * Файл читается построчно, без загрузки целиком в память, строки
+ * разбираются и проверяются в вызывающем потоке, а готовые записи
+ * передаются получателю {@link Sink} крупными пачками.
+ * Большие файлы (или при -Dstudents.load=parallel) разбираются параллельно
+ * по диапазонам байтов в пуле ForkJoin, см. {@link ParallelStudentParser};
+ * результаты диапазонов передаются в исходном порядке строк.
+ * Сжатый файл ({@link StudentFileFormat}) распаковывается при чтении
+ * и всегда читается построчно: в сжатом потоке нельзя начать разбор с середины.
+ * Если задан путь к двоичному снимку и снимок соответствует файлу,
+ * записи читаются из него без разбора и проверки строк, см. {@link StudentSnapshot}.
+ * Если задан путь к журналу изменений, после чтения снимка загрузчик
+ * также читает записи журнала, относящиеся к этому снимку.
+ * Каждая загрузка записывается событием {@link StudentEvents.Load}.
+ *
+ * Используется фоновой задачей {@link StudentLoadTask}, а также напрямую
+ * там, где инструментарий JavaFX не запущен (замеры производительности).
+ */
+final class StudentFileLoader {
+
+    // Размер пачки, передаваемой получателю одним вызовом
+    static final int BATCH_SIZE = 10_000;
+    // Размер файла, начиная с которого включается параллельный разбор
+    static final long PARALLEL_THRESHOLD_BYTES = 64L << 20;
+
+    /**
+     * Получатель результатов загрузки
+     */
+    interface Sink {
+        /** Очередная пачка студентов в порядке следования в файле */
+        void batch(List<Main.Student> batch);
+
+        /** Прогресс загрузки */
+        void progress(long done, long total);
+
+        /** Сообщение об ошибке в данных файла */
+        void error(String message);
+
+        /** @return true, если загрузку нужно прервать */
+        boolean isCancelled();
+    }
+
+    private final Path path;
+    private final Path journalPath;
+    private final Path snapshotPath;
+    private volatile boolean fromSnapshot;
+    private volatile long snapshotSize;
+    private volatile long snapshotCrc;
+    private volatile List<String[]> journalRecords = List.of();
+    private volatile int errorCount;
+    private volatile String lastError;
+
+    /**
+     * @param path путь к файлу данных
+     * @param journalPath путь к журналу изменений или null, если журнал не используется
+     * @param snapshotPath путь к двоичному снимку или null, если снимок не используется
+     */
+    StudentFileLoader(Path path, Path journalPath, Path snapshotPath) {
+        this.path = path;
+        this.journalPath = journalPath;
+        this.snapshotPath = snapshotPath;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Читает и разбирает файл, периодически передавая прогресс и пачки записей.
+     * Прерывается, когда получатель сообщает об отмене.
+     * @param sink получатель пачек, прогресса и ошибок
+     * @return количество загруженных студентов
+     */
+    int load(Sink sink) throws Exception {
+        StudentEvents.Load event = new StudentEvents.Load();
+        event.start();
+        int loaded = 0;
+        try {
+            long totalBytes = Files.size(path);
+            event.bytes = totalBytes;
+            if (snapshotPath != null) {
+                StudentSnapshot snapshot = StudentSnapshot.open(snapshotPath, path);
+                if (snapshot != null) {
+                    event.source = "snapshot";
+                    return loaded = loadSnapshot(snapshot, sink);
+                }
+            }
+            if (useParallel(totalBytes) && !StudentFileFormat.isCompressed(path)) {
+                event.source = "parallel";
+                return loaded = loadParallel(totalBytes, sink);
+            }
+            event.source = "text";
+            return loaded = loadText(totalBytes, sink);
+        } finally {
+            event.rows = loaded;
+            event.errors = errorCount;
+            event.cancelled = sink.isCancelled();
+            event.finish();
+        }
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Читает файл построчно в вызывающем потоке.
+     * @return количество загруженных студентов
+     */
+    private int loadText(long totalBytes, Sink sink) throws IOException {
+        int loaded = 0;
+        long lineNumber = 0;
+        List<Main.Student> batch = new ArrayList<>(BATCH_SIZE);
+
+        CRC32 crc = new CRC32();
+        try (CountingInputStream in = new CountingInputStream(Files.newInputStream(path));
+             CheckedInputStream checked = new CheckedInputStream(in, crc);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(
+                     StudentFileFormat.decode(checked), StandardCharsets.UTF_8), 1 << 16)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (sink.isCancelled()) {
+                    return loaded;
+                }
+                Main.Student s = parseLine(line, ++lineNumber, sink);
+                if (s != null) {
+                    batch.add(s);
+                    loaded++;
+                }
+                if (batch.size() == BATCH_SIZE) {
+                    sink.batch(batch);
+                    batch = new ArrayList<>(BATCH_SIZE);
+                    sink.progress(in.getCount(), totalBytes);
+                }
+            }
+            // Байты после конца сжатых данных тоже входят в контрольную сумму файла
+            checked.transferTo(OutputStream.nullOutputStream());
+            snapshotSize = in.getCount();
+            snapshotCrc = crc.getValue();
+        }
+        if (journalPath != null) {
+            journalRecords = StudentJournal.readRecords(journalPath, snapshotSize, snapshotCrc);
+        }
+        if (!batch.isEmpty() && !sink.isCancelled()) {
+            sink.batch(batch);
+        }
+        sink.progress(totalBytes, totalBytes);
+        return loaded;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Читает студентов из двоичного снимка, без разбора и проверки строк.
+     * @return количество загруженных студентов
+     */
+    private int loadSnapshot(StudentSnapshot snapshot, Sink sink) throws IOException {
+        fromSnapshot = true;
+        int rows = snapshot.getRowCount();
+        List<Main.Student> batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < rows; i++) {
+            if (sink.isCancelled()) {
+                return i;
+            }
+            batch.add(snapshot.student(i));
+            if (batch.size() == BATCH_SIZE) {
+                sink.batch(batch);
+                batch = new ArrayList<>(BATCH_SIZE);
+                sink.progress(i, rows);
+            }
+        }
+        if (!batch.isEmpty()) {
+            sink.batch(batch);
+        }
+        if (snapshot.getErrorCount() > 0) {
+            reportErrors(sink, snapshot.getErrorCount(),
+                    "Строк с ошибками в файле: " + snapshot.getErrorCount() + " (пропущены при построении снимка)");
+        }
+        snapshotSize = snapshot.getTextSize();
+        snapshotCrc = snapshot.getTextCrc();
+        if (journalPath != null) {
+            journalRecords = StudentJournal.readRecords(journalPath, snapshotSize, snapshotCrc);
+        }
+        sink.progress(rows, rows);
+        return rows;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Разбирает файл параллельно по диапазонам байтов.
+     * Диапазоны разбираются в пуле ForkJoin, а результаты забираются и
+     * передаются по порядку, поэтому порядок студентов совпадает с файлом.
+     * Контрольная сумма файла считается отдельной задачей.
+     * @return количество загруженных студентов
+     */
+    private int loadParallel(long totalBytes, Sink sink) throws Exception {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        List<ForkJoinTask<ParallelStudentParser.RangeResult>> tasks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ForkJoinTask<Long> crcTask = pool.submit(() -> checksum(channel, totalBytes));
+            List<long[]> ranges = ParallelStudentParser.split(channel, totalBytes, parallelism);
+            for (long[] range : ranges) {
+                tasks.add(pool.submit(() -> ParallelStudentParser.parse(channel, range)));
+            }
+
+            int loaded = 0;
+            long lineOffset = 0;
+            for (int i = 0; i < tasks.size(); i++) {
+                if (sink.isCancelled()) {
+                    return loaded;
+                }
+                ParallelStudentParser.RangeResult result = tasks.get(i).get();
+                for (ParallelStudentParser.LineError error : result.errors) {
+                    reportErrors(sink, 1, error.message(lineOffset));
+                }
+                List<Main.Student> students = result.students;
+                for (int from = 0; from < students.size(); from += BATCH_SIZE) {
+                    sink.batch(students.subList(from, Math.min(from + BATCH_SIZE, students.size())));
+                }
+                loaded += students.size();
+                lineOffset += result.lineCount;
+                sink.progress(ranges.get(i)[1], totalBytes);
+            }
+
+            snapshotSize = totalBytes;
+            snapshotCrc = crcTask.get();
+            if (journalPath != null) {
+                journalRecords = StudentJournal.readRecords(journalPath, snapshotSize, snapshotCrc);
+            }
+            return loaded;
+        } finally {
+            for (ForkJoinTask<?> task : tasks) {
+                task.cancel(false);
+            }
+            pool.shutdownNow();
+        }
+    }
+
+    private static boolean useParallel(long totalBytes) {
+        String mode = System.getProperty("students.load");
+        if (mode != null) {
+            return mode.equals("parallel");
+        }
+        return totalBytes >= PARALLEL_THRESHOLD_BYTES && Runtime.getRuntime().availableProcessors() > 1;
+    }
+
+    /**
+     * Считает контрольную сумму файла без разбора строк
+     * @return {размер в байтах, CRC32}
+     */
+    static long[] checksum(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            return new long[]{size, checksum(channel, size)};
+        }
+    }
+
+    // Контрольная сумма CRC32 всего файла, читаемого последовательно
+    private static long checksum(FileChannel channel, long totalBytes) throws IOException {
+        CRC32 crc = new CRC32();
+        ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20);
+        long pos = 0;
+        while (pos < totalBytes) {
+            buf.clear();
+            int n = channel.read(buf, pos);
+            if (n < 0) {
+                break;
+            }
+            buf.flip();
+            crc.update(buf);
+            pos += n;
+        }
+        return crc.getValue();
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Разбирает и проверяет одну строку файла.
+     * @param line строка формата Фамилия;Имя;Отчество;Возраст;Город;Группа
+     * @param lineNumber номер строки в файле
+     * @return студент или null, если строка содержит ошибку
+     */
+    private Main.Student parseLine(String line, long lineNumber, Sink sink) {
+        String[] parts = line.split(";");
+        if (parts.length != 6) {
+            reportErrors(sink, 1, new ParallelStudentParser.LineError(lineNumber, null, line).message(0));
+            return null;
+        }
+        // Валидация данных из файла
+        StudentValidator.Violation violation =
+                StudentValidator.validate(parts[1], parts[0], parts[2], parts[3], parts[4], parts[5]);
+        if (violation != null) {
+            reportErrors(sink, 1, new ParallelStudentParser.LineError(lineNumber, violation, line).message(0));
+            return null;
+        }
+        return new Main.Student(parts[1], parts[0], parts[2],
+                StudentValidator.parseAge(parts[3]), parts[4], parts[5]);
+    }
+
+    /**
+     * Запоминает ошибку разбора и передает её получателю
+     */
+    private void reportErrors(Sink sink, int count, String message) {
+        errorCount += count;
+        lastError = message;
+        sink.error(message);
+    }
+
+    /** @return количество строк, не прошедших проверку */
+    int getErrorCount() { return errorCount; }
+
+    /** @return текст последней ошибки разбора или null */
+    String getLastError() { return lastError; }
+
+    /** @return размер прочитанного файла данных в байтах */
+    long getSnapshotSize() { return snapshotSize; }
+
+    /** @return контрольная сумма CRC32 прочитанного файла данных */
+    long getSnapshotCrc() { return snapshotCrc; }
+
+    /** @return true, если данные прочитаны из двоичного снимка */
+    boolean isFromSnapshot() { return fromSnapshot; }
+
+    /** @return записи журнала, которые нужно применить поверх снимка */
+    List<String[]> getJournalRecords() { return journalRecords; }
+
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Поток, подсчитывающий прочитанные байты для расчета прогресса
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        long getCount() { return count; }
+    }
+}
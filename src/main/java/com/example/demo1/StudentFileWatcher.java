@@ -0,0 +1,183 @@
+package com.example.demo1;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Наблюдение за файлом данных и синхронизация списка с внешними изменениями.
+ * Каталог файла данных регистрируется в {@link WatchService}; после изменения
+ * файла и паузы {@link #QUIET_MILLIS} без новых событий файл читается заново,
+ * сравнивается со списком ({@link StudentRepository#planSync}) и к списку
+ * применяются только добавленные, удаленные и измененные строки.
+ *
+ * Собственные записи приложения (перезапись файла, сворачивание журнала)
+ * распознаются по размеру и контрольной сумме содержимого и пропускаются.
+ * Если файл изменен извне, его содержимое считается главным: неизмененные
+ * в файле правки из журнала заменяются строками файла, журнал начинается заново.
+ *
+ * Чтение и сравнение выполняются в фоновом потоке, изменение списка —
+ * в потоке-владельце списка через переданный Executor (Platform::runLater в приложении).
+ */
+final class StudentFileWatcher implements Closeable {
+
+    // Пауза после последнего события, после которой файл считается записанным
+    static final long QUIET_MILLIS = 500;
+    // Число попыток, если список меняется во время сравнения
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final StudentRepository repository;
+    private final Executor owner;
+    private final Consumer<String> messages;
+    private final WatchService watchService;
+    private final Path fileName;
+
+    /**
+     * @param repository хранилище, список которого синхронизируется
+     * @param owner исполнитель в потоке-владельце списка
+     * @param messages получатель сообщений о синхронизации, вызывается в потоке-владельце
+     */
+    StudentFileWatcher(StudentRepository repository, Executor owner, Consumer<String> messages) throws IOException {
+        this.repository = repository;
+        this.owner = owner;
+        this.messages = messages;
+        Path dataPath = repository.getDataPath().toAbsolutePath();
+        this.fileName = dataPath.getFileName();
+        this.watchService = dataPath.getFileSystem().newWatchService();
+        dataPath.getParent().register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+    }
+
+    /**
+     * Запускает наблюдение в фоновом потоке
+     */
+    void start() {
+        Thread.ofPlatform().daemon().name("students-watch").start(this::run);
+    }
+
+    /**
+     * Останавливает наблюдение
+     */
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    private void run() {
+        try {
+            while (true) {
+                if (!isDataFileEvent(watchService.take())) {
+                    continue;
+                }
+                // Ожидание паузы в записи файла
+                WatchKey key;
+                while ((key = watchService.poll(QUIET_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    isDataFileEvent(key);
+                }
+                sync();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException e) {
+            // Наблюдение остановлено
+        }
+    }
+
+    /**
+     * Разбирает события ключа и снова включает его
+     * @return true, если среди событий есть изменение файла данных
+     */
+    private boolean isDataFileEvent(WatchKey key) {
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || fileName.equals(event.context())) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Читает файл и применяет различия к списку.
+     * Если список изменился во время сравнения, сравнение повторяется.
+     */
+    private void sync() throws InterruptedException {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            try {
+                if (!repository.isReady() || !Files.exists(repository.getDataPath())) {
+                    return;
+                }
+                long[] signature = StudentFileLoader.checksum(repository.getDataPath());
+                if (repository.isKnownContent(signature[0], signature[1])) {
+                    return;
+                }
+                List<Main.Student> fileStudents = new ArrayList<>();
+                StudentFileLoader loader = new StudentFileLoader(repository.getDataPath(), null, null);
+                loader.load(new StudentFileLoader.Sink() {
+                    @Override
+                    public void batch(List<Main.Student> batch) {
+                        fileStudents.addAll(batch);
+                    }
+
+                    @Override
+                    public void progress(long done, long total) {
+                    }
+
+                    @Override
+                    public void error(String message) {
+                    }
+
+                    @Override
+                    public boolean isCancelled() {
+                        return false;
+                    }
+                });
+                if (repository.isKnownContent(loader.getSnapshotSize(), loader.getSnapshotCrc())) {
+                    return;
+                }
+                StudentRepository.SyncPlan plan = repository.planSync(
+                        fileStudents, loader.getSnapshotSize(), loader.getSnapshotCrc());
+                if (apply(plan, loader.getErrorCount())) {
+                    return;
+                }
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                report("Ошибка синхронизации с файлом: " + e.getMessage());
+                return;
+            }
+        }
+        report("Файл изменен извне, но список меняется слишком часто; синхронизация отложена");
+    }
+
+    /**
+     * Применяет план в потоке-владельце списка и дожидается результата
+     * @return false, если план устарел
+     */
+    private boolean apply(StudentRepository.SyncPlan plan, int errorCount) throws Exception {
+        CompletableFuture<Boolean> done = new CompletableFuture<>();
+        owner.execute(() -> {
+            try {
+                StudentRepository.SyncResult result = repository.applySync(plan);
+                if (result != null && (!plan.hunks().isEmpty() || errorCount > 0)) {
+                    messages.accept("Файл изменен извне: добавлено " + result.inserted()
+                            + ", удалено " + result.removed() + ", изменено " + result.changed()
+                            + (errorCount > 0 ? ", строк с ошибками: " + errorCount : ""));
+                }
+                done.complete(result != null);
+            } catch (Throwable t) {
+                done.completeExceptionally(t);
+            }
+        });
+        return done.get();
+    }
+
+    private void report(String message) {
+        owner.execute(() -> messages.accept(message));
+    }
+}
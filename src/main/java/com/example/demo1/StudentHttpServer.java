@@ -0,0 +1,262 @@
+package com.example.demo1;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Встроенный HTTP сервер запросов к списку студентов.
+ * Слушает только локальный адрес, каждый запрос обрабатывается в отдельном
+ * виртуальном потоке, поэтому тысячи одновременных запросов не занимают
+ * потоки платформы. Запросы читают данные хранилища под блокировкой чтения
+ * и не мешают работе интерфейса с тем же списком.
+ *
+ * Запросы:
+ * {@code GET /students?surname=&group=&name=&patronymic=&city=&age=&limit=} —
+ * студенты по условиям (подстрока без учета регистра, возраст точно), ответ в JSON;
+ * {@code GET /metrics} — сводка метрик {@link StudentMetrics}.
+ *
+ * Запуск без интерфейса: {@code StudentHttpServer <файл данных> <порт>}.
+ */
+final class StudentHttpServer implements Closeable {
+
+    static final int DEFAULT_LIMIT = 100;
+    static final int MAX_LIMIT = 10_000;
+    // Очередь входящих соединений, рассчитана на тысячи одновременных клиентов
+    private static final int BACKLOG = 4096;
+
+    private final StudentRepository repository;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * @param repository хранилище, по которому выполняются запросы
+     * @param port локальный порт
+     */
+    StudentHttpServer(StudentRepository repository, int port) throws IOException {
+        this.repository = repository;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        server.setExecutor(executor);
+        server.createContext("/students", this::handleStudents);
+        server.createContext("/metrics", this::handleMetrics);
+    }
+
+    /**
+     * Начинает прием запросов
+     */
+    void start() {
+        server.start();
+    }
+
+    /** @return порт, на котором принимаются запросы */
+    int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Останавливает прием запросов и дожидается завершения начатых
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.close();
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Обрабатывает запрос списка студентов
+     */
+    private void handleStudents(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                send(exchange, 405, error("Поддерживается только GET"));
+                return;
+            }
+            Map<String, String> params = parseQuery(exchange.getRequestURI().getRawQuery());
+            String problem = checkParams(params);
+            if (problem != null) {
+                send(exchange, 400, error(problem));
+                return;
+            }
+            String age = params.get("age");
+            StudentRepository.Query query = new StudentRepository.Query(
+                    params.get("surname"), params.get("group"), params.get("name"),
+                    params.get("patronymic"), params.get("city"),
+                    age == null ? null : StudentValidator.parseAge(age));
+            String limit = params.get("limit");
+            int max = limit == null ? DEFAULT_LIMIT : Math.max(0, Math.min(StudentValidator.parseAge(limit), MAX_LIMIT));
+
+            StudentEvents.Search event = new StudentEvents.Search(query.surname(), query.group(), false);
+            event.start();
+            StudentRepository.QueryResult result = repository.query(query, max);
+            event.rows = result.matched();
+            event.finish();
+            send(exchange, 200, toJson(result));
+        }
+    }
+
+    /**
+     * Отдает сводку метрик в текстовом виде
+     */
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+            byte[] body = StudentMetrics.report().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Проверяет параметры запроса по правилам полей студента
+     * @return описание ошибки или null, если параметры корректны
+     */
+    private static String checkParams(Map<String, String> params) {
+        for (Map.Entry<String, String> p : params.entrySet()) {
+            String value = p.getValue();
+            StudentValidator.Field field = switch (p.getKey()) {
+                case "surname" -> StudentValidator.Field.SURNAME;
+                case "group" -> StudentValidator.Field.GROUP;
+                case "name" -> StudentValidator.Field.NAME;
+                case "patronymic" -> StudentValidator.Field.PATRONYMIC;
+                case "city" -> StudentValidator.Field.CITY;
+                case "age", "limit" -> StudentValidator.Field.AGE;
+                default -> null;
+            };
+            if (field == null) {
+                return "Неизвестный параметр: " + p.getKey();
+            }
+            if (!field.allows(value)) {
+                return field.hint();
+            }
+            if (field == StudentValidator.Field.AGE
+                    && StudentValidator.parseAge(value) == StudentValidator.NOT_A_NUMBER) {
+                return "Параметр " + p.getKey() + " должен быть числом";
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String key = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            params.put(key, value.trim());
+        }
+        return params;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    private static String toJson(StudentRepository.QueryResult result) {
+        StringBuilder sb = new StringBuilder(64 + result.rows().size() * 128);
+        sb.append("{\"matched\":").append(result.matched())
+                .append(",\"returned\":").append(result.rows().size())
+                .append(",\"students\":[");
+        boolean first = true;
+        for (StudentRepository.Row r : result.rows()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append("{\"surname\":");
+            quote(sb, r.surname());
+            sb.append(",\"name\":");
+            quote(sb, r.name());
+            sb.append(",\"patronymic\":");
+            quote(sb, r.patronymic());
+            sb.append(",\"age\":").append(r.age());
+            sb.append(",\"city\":");
+            quote(sb, r.city());
+            sb.append(",\"group\":");
+            quote(sb, r.group());
+            sb.append('}');
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static String error(String message) {
+        StringBuilder sb = new StringBuilder("{\"error\":");
+        quote(sb, message);
+        return sb.append('}').toString();
+    }
+
+    // Строка JSON с экранированием кавычек, обратной косой черты и управляющих символов
+    private static void quote(StringBuilder sb, String value) {
+        if (value == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < ' ') {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Запуск сервера без интерфейса: загружает файл данных и отвечает на запросы
+     * до завершения процесса
+     * @param args путь к файлу данных и порт
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("Использование: StudentHttpServer <файл данных> <порт>");
+            System.exit(2);
+        }
+        StudentRepository repository = new StudentRepository(Path.of(args[0]),
+                !"rewrite".equals(System.getProperty("students.persistence")),
+                "binary".equals(System.getProperty("students.snapshot")),
+                System.err::println);
+        int loaded = repository.load();
+        StudentHttpServer server = new StudentHttpServer(repository, Integer.parseInt(args[1]));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            repository.close();
+        }, "students-http-shutdown"));
+        server.start();
+        System.err.println("Загружено студентов: " + loaded + ", порт: " + server.getPort());
+    }
+}
@@ -0,0 +1,206 @@
+package com.example.demo1;
+
+import javafx.animation.AnimationTimer;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Импорт студентов из внешнего файла в работающее приложение.
+ *
+ * Производитель в фоновом потоке читает, разбирает и проверяет строки
+ * ({@link StudentFileLoader}) и кладет пачки в ограниченную очередь; если
+ * интерфейс не успевает, производитель ждет освобождения места в очереди.
+ * Потребитель — {@link AnimationTimer}: не чаще одного раза за кадр он забирает
+ * из очереди не больше {@link #MAX_ROWS_PER_PULSE} строк и добавляет их в список
+ * одним изменением, поэтому ни очередь событий JavaFX, ни таблица не получают
+ * события на каждую строку. Там же обновляются прогресс, скорость и оставшееся время.
+ *
+ * Отмена останавливает производителя и удаляет из списка уже добавленных
+ * импортом студентов. Все методы вызываются в потоке JavaFX.
+ */
+final class StudentImport {
+
+    // Емкость очереди в пачках загрузчика (по StudentFileLoader.BATCH_SIZE строк)
+    static final int QUEUE_CAPACITY = 8;
+    // Наибольшее количество строк, добавляемых в список за один кадр
+    static final int MAX_ROWS_PER_PULSE = 50_000;
+    // Период проверки отмены производителем, ожидающим места в очереди
+    private static final long OFFER_TIMEOUT_MILLIS = 50;
+
+    private final StudentRepository repository;
+    private final Path path;
+    private final Consumer<String> status;
+    private final Runnable onFinished;
+    private final BlockingQueue<List<Main.Student>> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    // Студенты, уже добавленные в список, для отката
+    private final List<Main.Student> imported = new ArrayList<>();
+    private final AnimationTimer pulse = new AnimationTimer() {
+        @Override
+        public void handle(long now) {
+            drain(now);
+        }
+    };
+
+    private StudentFileLoader loader;
+    private volatile boolean cancelled;
+    private volatile boolean producerDone;
+    private volatile Exception failure;
+    private volatile long bytesDone;
+    private volatile long bytesTotal;
+    private long startNanos;
+    private boolean running;
+
+    /**
+     * @param repository хранилище, в список которого добавляются студенты
+     * @param path импортируемый файл в формате файла данных
+     * @param status получатель сообщений о ходе импорта
+     * @param onFinished вызывается после завершения, отмены или ошибки импорта
+     */
+    StudentImport(StudentRepository repository, Path path, Consumer<String> status, Runnable onFinished) {
+        this.repository = repository;
+        this.path = path;
+        this.status = status;
+        this.onFinished = onFinished;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Запускает чтение файла в фоновом потоке и применение пачек по кадрам
+     */
+    void start() {
+        loader = new StudentFileLoader(path, null, null);
+        startNanos = System.nanoTime();
+        running = true;
+        Thread.ofVirtual().name("students-import").start(this::produce);
+        pulse.start();
+    }
+
+    /**
+     * Отменяет импорт и удаляет из списка уже импортированных студентов
+     */
+    void cancel() {
+        if (!running) {
+            return;
+        }
+        cancelled = true;
+        queue.clear();
+        rollback("Импорт отменен");
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Производитель: читает файл и кладет пачки в очередь, ожидая места в ней
+     */
+    private void produce() {
+        try {
+            loader.load(new StudentFileLoader.Sink() {
+                @Override
+                public void batch(List<Main.Student> batch) {
+                    try {
+                        while (!cancelled && !queue.offer(batch, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                            // Очередь заполнена: интерфейс еще не применил предыдущие пачки
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        cancelled = true;
+                    }
+                }
+
+                @Override
+                public void progress(long done, long total) {
+                    bytesDone = done;
+                    bytesTotal = total;
+                }
+
+                @Override
+                public void error(String message) {
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    return cancelled;
+                }
+            });
+        } catch (Exception e) {
+            failure = e;
+        } finally {
+            producerDone = true;
+        }
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Потребитель: вызывается один раз за кадр, добавляет накопленные строки
+     * одним изменением списка и обновляет прогресс
+     */
+    private void drain(long now) {
+        if (!running) {
+            return;
+        }
+        // Признак читается до проверки очереди: после него производитель пачек уже не добавит
+        boolean done = producerDone;
+        List<Main.Student> chunk = new ArrayList<>();
+        List<Main.Student> batch;
+        while (chunk.size() < MAX_ROWS_PER_PULSE && (batch = queue.poll()) != null) {
+            chunk.addAll(batch);
+        }
+        if (!chunk.isEmpty()) {
+            repository.importBatch(chunk);
+            imported.addAll(chunk);
+        }
+
+        if (failure != null) {
+            cancelled = true;
+            queue.clear();
+            rollback("Ошибка импорта: " + failure.getMessage());
+        } else if (done && queue.isEmpty()) {
+            complete();
+        } else if (!chunk.isEmpty()) {
+            status.accept(progress(now));
+        }
+    }
+
+    private String progress(long now) {
+        double seconds = (now - startNanos) / 1e9;
+        long rate = seconds > 0 ? Math.round(imported.size() / seconds) : 0;
+        StringBuilder sb = new StringBuilder("Импорт: ");
+        long total = bytesTotal;
+        long done = bytesDone;
+        if (total > 0) {
+            sb.append(done * 100 / total).append("%, ");
+        }
+        sb.append("студентов: ").append(imported.size()).append(", ").append(rate).append(" в сек.");
+        if (total > 0 && done > 0 && done < total) {
+            long eta = Math.round(seconds * (total - done) / done);
+            sb.append(", осталось ").append(eta).append(" сек.");
+        }
+        return sb.toString();
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    private void complete() {
+        // В режиме перезаписи файл сохраняется в фоне, ошибка записи приходит получателю ошибок хранилища
+        repository.finishImport();
+        double seconds = (System.nanoTime() - startNanos) / 1e9;
+        String message = String.format("Импортировано студентов: %d за %.1f сек.", imported.size(), seconds);
+        if (loader.getErrorCount() > 0) {
+            message += ", строк с ошибками: " + loader.getErrorCount() + " (" + loader.getLastError() + ")";
+        }
+        finish(message);
+    }
+
+    private void rollback(String reason) {
+        int removed = repository.rollbackImport(imported);
+        imported.clear();
+        finish(reason + ", удалено импортированных студентов: " + removed);
+    }
+
+    private void finish(String message) {
+        pulse.stop();
+        running = false;
+        status.accept(message);
+        onFinished.run();
+    }
+}
@@ -0,0 +1,461 @@
+package com.example.demo1;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Журнал изменений списка студентов.
+ * Каждое добавление, изменение и удаление дописывается в конец файла журнала
+ * рядом с файлом данных одной короткой записью, вместо перезаписи всего файла.
+ * При загрузке журнал применяется поверх снимка (основного файла данных).
+ * Когда журнал превышает порог, он сворачивается в новый снимок,
+ * который подменяет файл данных атомарным переименованием.
+ *
+ * Формат журнала: первая строка — заголовок снимка, к которому относится журнал
+ * ({@code #SNAPSHOT;размер;crc32}), далее записи:
+ * {@code A;Фамилия;Имя;Отчество;Возраст;Город;Группа},
+ * {@code U;индекс;Фамилия;Имя;Отчество;Возраст;Город;Группа},
+ * {@code D;индекс}.
+ * Если заголовок не совпадает с текущим снимком (например, сбой произошел
+ * после подмены снимка, но до очистки журнала), журнал считается устаревшим
+ * и не применяется.
+ *
+ * Все операции ввода-вывода выполняются в отдельном потоке последовательно.
+ * Запись и сворачивание журнала отмечаются событиями {@link StudentEvents.Save}.
+ */
+class StudentJournal implements Closeable {
+
+    // Размер журнала, после которого он сворачивается в новый снимок
+    static final long COMPACT_THRESHOLD_BYTES = 1 << 20;
+
+    private static final String HEADER_PREFIX = "#SNAPSHOT;";
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final Path dataPath;
+    private final Path journalPath;
+    private final Path tmpPath;
+    private final Consumer<String> errorHandler;
+    private final SnapshotListener snapshotListener;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "students-journal");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private FileChannel channel;
+    private volatile long journalSize;
+    private volatile boolean compacting;
+
+    /**
+     * Получатель сведений о снимке, записанном при сворачивании журнала
+     */
+    interface SnapshotListener {
+        /**
+         * Вызывается в потоке журнала перед подменой файла данных новым снимком
+         * @param size размер снимка в байтах
+         * @param crc контрольная сумма CRC32 снимка
+         */
+        void snapshotWritten(long size, long crc);
+    }
+
+    /**
+     * @param dataPath путь к файлу данных (снимку)
+     * @param errorHandler получатель сообщений об ошибках записи, вызывается в потоке журнала
+     * @param snapshotListener получатель сведений о новых снимках
+     */
+    StudentJournal(Path dataPath, Consumer<String> errorHandler, SnapshotListener snapshotListener) {
+        this.dataPath = dataPath;
+        this.journalPath = journalPathFor(dataPath);
+        this.tmpPath = dataPath.resolveSibling(dataPath.getFileName() + ".tmp");
+        this.errorHandler = errorHandler;
+        this.snapshotListener = snapshotListener;
+    }
+
+    /**
+     * @return путь к журналу для указанного файла данных
+     */
+    static Path journalPathFor(Path dataPath) {
+        return dataPath.resolveSibling(dataPath.getFileName() + ".journal");
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Открывает журнал для дозаписи.
+     * Если существующий журнал относится к другому снимку, он начинается заново.
+     * Отсутствующий файл данных создается пустым.
+     * @param snapshotSize размер загруженного снимка в байтах
+     * @param snapshotCrc контрольная сумма загруженного снимка
+     */
+    void open(long snapshotSize, long snapshotCrc) {
+        submit(() -> {
+            closeChannel();
+            if (!Files.exists(dataPath)) {
+                Files.createFile(dataPath);
+            }
+            // Оборванная сбоем запись отбрасывается, чтобы новые записи не склеились с ней
+            dropTornRecord(journalPath);
+            String header = header(snapshotSize, snapshotCrc);
+            if (!header.equals(readHeader(journalPath))) {
+                resetJournal(header);
+            }
+            channel = FileChannel.open(journalPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            journalSize = channel.size();
+        });
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Записывает в журнал добавление пачки студентов в конец списка одной записью на диск
+     */
+    void logAddAll(List<Main.Student> students) {
+        Batch batch = new Batch();
+        for (Main.Student s : students) {
+            batch.add(s);
+        }
+        log(batch);
+    }
+
+    /**
+     * Записывает в журнал удаление студентов одной записью на диск
+     * @param indexes индексы в порядке удаления (по убыванию, чтобы индексы не сдвигались)
+     */
+    void logDeleteAll(int[] indexes) {
+        Batch batch = new Batch();
+        for (int index : indexes) {
+            batch.delete(index);
+        }
+        log(batch);
+    }
+
+    /**
+     * Записывает накопленные записи в журнал одной записью на диск
+     */
+    void log(Batch batch) {
+        if (batch.count > 0) {
+            append(batch.records.toString(), batch.count);
+        }
+    }
+
+    /**
+     * Записи журнала в порядке применения к списку, записываемые на диск вместе
+     */
+    static final class Batch {
+        private final StringBuilder records = new StringBuilder();
+        private int count;
+
+        /** Добавление студента в конец списка */
+        void add(Main.Student s) {
+            records.append("A;").append(format(s)).append(LINE_SEPARATOR);
+            count++;
+        }
+
+        /** Изменение студента с указанным индексом */
+        void update(int index, Main.Student s) {
+            records.append("U;").append(index).append(';').append(format(s)).append(LINE_SEPARATOR);
+            count++;
+        }
+
+        /** Удаление студента с указанным индексом */
+        void delete(int index) {
+            records.append("D;").append(index).append(LINE_SEPARATOR);
+            count++;
+        }
+
+        /** @return true, если записей нет */
+        boolean isEmpty() {
+            return count == 0;
+        }
+    }
+
+    /**
+     * @return true, если журнал превысил порог и сворачивание еще не запущено
+     */
+    boolean needsCompaction() {
+        return !compacting && journalSize > COMPACT_THRESHOLD_BYTES;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Сворачивает журнал в новый снимок в формате файла данных (текст или gzip).
+     * Строки снимка должны быть сформированы в потоке JavaFX в момент вызова,
+     * тогда все записи, поставленные в очередь после него, попадут в новый журнал.
+     * @param snapshotLines строки нового снимка
+     */
+    void compact(List<String> snapshotLines) {
+        compacting = true;
+        submit(() -> {
+            StudentEvents.Save event = new StudentEvents.Save("compact");
+            event.start();
+            try {
+                long[] written = StudentFileFormat.write(tmpPath, StudentFileFormat.isCompressed(dataPath), snapshotLines);
+                long size = written[0];
+                long crc = written[1];
+                snapshotListener.snapshotWritten(size, crc);
+                Files.move(tmpPath, dataPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+                // Журнал начинается заново при открытом канале: канал пишет в конец файла,
+                // поэтому после очистки дописывает за новым заголовком, а при ошибке
+                // очистки остается рабочим
+                resetJournal(header(size, crc));
+                if (channel == null) {
+                    channel = FileChannel.open(journalPath, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                }
+                journalSize = channel.size();
+                event.rows = snapshotLines.size();
+                event.bytes = size;
+            } finally {
+                compacting = false;
+                event.finish();
+            }
+        });
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Дописывает записи в журнал в фоновом потоке
+     * @param records записи, каждая с разделителем строк
+     * @param count количество записей
+     */
+    private void append(String records, int count) {
+        submit(() -> {
+            if (channel == null) {
+                throw new IOException("Журнал не открыт");
+            }
+            StudentEvents.Save event = new StudentEvents.Save("journal");
+            event.start();
+            byte[] bytes = records.getBytes(StandardCharsets.UTF_8);
+            writeFully(channel, ByteBuffer.wrap(bytes));
+            channel.force(false);
+            journalSize += bytes.length;
+            event.rows = count;
+            event.bytes = bytes.length;
+            event.finish();
+        });
+    }
+
+    private void submit(IoAction action) {
+        writer.execute(() -> {
+            try {
+                action.run();
+            } catch (IOException e) {
+                errorHandler.accept("Ошибка записи журнала: " + e.getMessage());
+            }
+        });
+    }
+
+    private void resetJournal(String header) throws IOException {
+        Files.writeString(journalPath, header + LINE_SEPARATOR, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Дожидается записи всех поставленных в очередь изменений и закрывает журнал
+     */
+    @Override
+    public void close() {
+        submit(this::closeChannel);
+        writer.shutdown();
+        try {
+            writer.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Читает записи журнала, относящиеся к указанному снимку.
+     * Оборванная последняя запись (сбой во время записи) пропускается: запись
+     * считается целой, только если за ней есть разделитель строк.
+     * Записи добавления и изменения с некорректными полями тоже пропускаются.
+     * @param journalPath путь к журналу
+     * @param snapshotSize размер снимка в байтах
+     * @param snapshotCrc контрольная сумма снимка
+     * @return записи журнала, разбитые на поля; пустой список, если журнал отсутствует или устарел
+     */
+    static List<String[]> readRecords(Path journalPath, long snapshotSize, long snapshotCrc) throws IOException {
+        List<String[]> records = new ArrayList<>();
+        if (!Files.exists(journalPath)) {
+            return records;
+        }
+        boolean terminated;
+        try (FileChannel in = FileChannel.open(journalPath, StandardOpenOption.READ)) {
+            terminated = completeLength(in) == in.size();
+        }
+        try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            if (!header(snapshotSize, snapshotCrc).equals(reader.readLine())) {
+                return records;
+            }
+            String line = reader.readLine();
+            while (line != null) {
+                String next = reader.readLine();
+                if (next != null || terminated) {
+                    String[] parts = line.split(";");
+                    if (isValidRecord(parts)) {
+                        records.add(parts);
+                    }
+                }
+                line = next;
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Применяет записи журнала к списку студентов.
+     * Записи с индексами вне списка пропускаются.
+     * @return количество примененных записей
+     */
+    static int replay(List<String[]> records, List<Main.Student> students) {
+        List<Main.Student> added = new ArrayList<>();
+        int applied = 0;
+        for (String[] r : records) {
+            switch (r[0]) {
+                case "A" -> {
+                    added.add(parseStudent(r, 1));
+                    applied++;
+                }
+                case "U" -> {
+                    int index = Integer.parseInt(r[1]);
+                    if (index < students.size() + added.size()) {
+                        flush(added, students);
+                        Main.Student s = students.get(index);
+                        Main.Student n = parseStudent(r, 2);
+                        s.setSurname(n.getSurname());
+                        s.setName(n.getName());
+                        s.setPatronymic(n.getPatronymic());
+                        s.setAge(n.getAge());
+                        s.setCity(n.getCity());
+                        s.setGroup(n.getGroup());
+                        applied++;
+                    }
+                }
+                case "D" -> {
+                    int index = Integer.parseInt(r[1]);
+                    if (index < students.size() + added.size()) {
+                        flush(added, students);
+                        students.remove(index);
+                        applied++;
+                    }
+                }
+                default -> { }
+            }
+        }
+        flush(added, students);
+        return applied;
+    }
+
+    // Подряд идущие добавления применяются к списку одним вызовом addAll
+    private static void flush(List<Main.Student> added, List<Main.Student> students) {
+        if (!added.isEmpty()) {
+            students.addAll(added);
+            added.clear();
+        }
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Формирует строку файла данных для студента
+     * @return строка формата Фамилия;Имя;Отчество;Возраст;Город;Группа
+     */
+    static String format(Main.Student s) {
+        return s.getSurname() + ";" + s.getName() + ";" + s.getPatronymic() + ";"
+                + s.getAge() + ";" + s.getCity() + ";" + s.getGroup();
+    }
+
+    private static Main.Student parseStudent(String[] r, int from) {
+        return new Main.Student(r[from + 1], r[from], r[from + 2],
+                Integer.parseInt(r[from + 3]), r[from + 4], r[from + 5]);
+    }
+
+    private static boolean isValidRecord(String[] parts) {
+        try {
+            return switch (parts[0]) {
+                case "A" -> parts.length == 7 && isValidStudent(parts, 1);
+                case "U" -> parts.length == 8 && Integer.parseInt(parts[1]) >= 0 && isValidStudent(parts, 2);
+                case "D" -> parts.length == 2 && Integer.parseInt(parts[1]) >= 0;
+                default -> false;
+            };
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // Поля Фамилия;Имя;Отчество;Возраст;Город;Группа, начиная с from, проходят проверку формы ввода
+    private static boolean isValidStudent(String[] r, int from) {
+        return StudentValidator.validate(r[from + 1], r[from], r[from + 2], r[from + 3], r[from + 4], r[from + 5]) == null;
+    }
+
+    private static String header(long size, long crc) {
+        return HEADER_PREFIX + size + ";" + Long.toHexString(crc);
+    }
+
+    private static String readHeader(Path journalPath) throws IOException {
+        if (!Files.exists(journalPath)) {
+            return null;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+            return reader.readLine();
+        }
+    }
+
+    /**
+     * Обрезает журнал после последнего разделителя строк
+     */
+    private static void dropTornRecord(Path journalPath) throws IOException {
+        if (!Files.exists(journalPath)) {
+            return;
+        }
+        try (FileChannel ch = FileChannel.open(journalPath, StandardOpenOption.WRITE, StandardOpenOption.READ)) {
+            long complete = completeLength(ch);
+            if (complete < ch.size()) {
+                ch.truncate(complete);
+            }
+        }
+    }
+
+    /**
+     * @return длина файла до конца последней строки с разделителем
+     */
+    private static long completeLength(FileChannel ch) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(8192);
+        long end = ch.size();
+        while (end > 0) {
+            long start = Math.max(0, end - buf.capacity());
+            buf.clear().limit((int) (end - start));
+            while (buf.hasRemaining()) {
+                if (ch.read(buf, start + buf.position()) < 0) {
+                    break;
+                }
+            }
+            for (int i = buf.position() - 1; i >= 0; i--) {
+                if (buf.get(i) == '\n') {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0;
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            out.write(buf);
+        }
+    }
+
+    /**
+     * Операция ввода-вывода, выполняемая в потоке журнала
+     */
+    @FunctionalInterface
+    private interface IoAction {
+        void run() throws IOException;
+    }
+}
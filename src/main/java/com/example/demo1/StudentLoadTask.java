@@ -0,0 +1,81 @@
+package com.example.demo1;
+
+import javafx.application.Platform;
+import javafx.concurrent.Task;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Фоновая задача потоковой загрузки студентов из текстового файла.
+ * Чтение, разбор и проверка строк выполняются {@link StudentFileLoader}
+ * вне потока JavaFX, а готовые записи передаются в UI крупными пачками
+ * через {@link Platform#runLater}; прогресс и ошибки публикуются
+ * как прогресс и сообщение задачи.
+ * Результат задачи — количество загруженных студентов.
+ */
+class StudentLoadTask extends Task<Integer> {
+
+    private final StudentFileLoader loader;
+    private final Consumer<List<Main.Student>> batchConsumer;
+
+    /**
+     * @param loader загрузчик файла данных, см. {@link StudentRepository#prepareLoad}
+     * @param batchConsumer получатель пачек студентов, вызывается в потоке JavaFX
+     */
+    StudentLoadTask(StudentFileLoader loader, Consumer<List<Main.Student>> batchConsumer) {
+        this.loader = loader;
+        this.batchConsumer = batchConsumer;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Читает и разбирает файл, периодически публикуя прогресс и пачки записей.
+     * Прерывается при отмене задачи.
+     * @return количество загруженных студентов
+     */
+    @Override
+    protected Integer call() throws Exception {
+        return loader.load(new StudentFileLoader.Sink() {
+            @Override
+            public void batch(List<Main.Student> batch) {
+                publish(batch);
+            }
+
+            @Override
+            public void progress(long done, long total) {
+                updateProgress(done, total);
+            }
+
+            @Override
+            public void error(String message) {
+                updateMessage(message);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return StudentLoadTask.this.isCancelled();
+            }
+        });
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Передает пачку студентов в поток JavaFX.
+     * Пачки, пришедшие после отмены задачи, отбрасываются.
+     */
+    private void publish(List<Main.Student> batch) {
+        Platform.runLater(() -> {
+            if (!isCancelled()) {
+                batchConsumer.accept(batch);
+            }
+        });
+    }
+
+    /** @return количество строк, не прошедших проверку */
+    int getErrorCount() { return loader.getErrorCount(); }
+
+    /** @return текст последней ошибки разбора или null */
+    String getLastError() { return loader.getLastError(); }
+
+    /** @return загрузчик, выполняющий задачу */
+    StudentFileLoader getLoader() { return loader; }
+}
@@ -0,0 +1,146 @@
+package com.example.demo1;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Метрики длительности основных операций приложения в процессе:
+ * гистограмма задержек (p50/p99), количество обработанных строк и байтов.
+ * Пополняется событиями {@link StudentEvents} независимо от того, идет ли запись JFR;
+ * время от запуска процесса до первого кадра окна учитывает {@link Main}.
+ *
+ * Сводку можно получить без интерфейса: при -Dstudents.metrics.dump=файл
+ * она записывается в файл при завершении процесса ("-" — в стандартный поток ошибок).
+ */
+final class StudentMetrics {
+
+    /**
+     * Измеряемые операции
+     */
+    enum Operation {
+        LOAD("Загрузка"),
+        SAVE("Сохранение"),
+        SEARCH("Поиск"),
+        VALIDATION("Проверка"),
+        FIRST_FRAME("Первый кадр");
+
+        private final String label;
+
+        Operation(String label) {
+            this.label = label;
+        }
+
+        /** @return название операции для пользователя */
+        String label() {
+            return label;
+        }
+    }
+
+    private static final Map<Operation, Stats> STATS = new EnumMap<>(Operation.class);
+
+    static {
+        for (Operation op : Operation.values()) {
+            STATS.put(op, new Stats());
+        }
+        String dump = System.getProperty("students.metrics.dump");
+        if (dump != null) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> dump(dump), "students-metrics-dump"));
+        }
+    }
+
+    private StudentMetrics() {
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Учитывает выполненную операцию
+     * @param op операция
+     * @param nanos длительность в наносекундах
+     * @param rows количество обработанных строк
+     * @param bytes количество обработанных байтов
+     */
+    static void record(Operation op, long nanos, long rows, long bytes) {
+        Stats stats = STATS.get(op);
+        stats.latency.record(nanos);
+        stats.rows.add(rows);
+        stats.bytes.add(bytes);
+    }
+
+    /** @return гистограмма длительностей операции */
+    static LatencyHistogram latency(Operation op) {
+        return STATS.get(op).latency;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Краткая сводка для панели состояния: по строке на операцию
+     */
+    static String summary() {
+        StringBuilder sb = new StringBuilder();
+        for (Operation op : Operation.values()) {
+            LatencyHistogram h = latency(op);
+            if (sb.length() > 0) {
+                sb.append('\n');
+            }
+            sb.append(op.label()).append(": ");
+            if (h.count() == 0) {
+                sb.append('—');
+            } else {
+                sb.append("p50 ").append(millis(h.percentile(50)))
+                        .append(", p99 ").append(millis(h.percentile(99)))
+                        .append(" мс (").append(h.count()).append(')');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Полная сводка: количество, процентили, максимум, строки и байты по каждой операции
+     */
+    static String report() {
+        StringBuilder sb = new StringBuilder("операция;количество;p50_мс;p99_мс;max_мс;строк;байт");
+        for (Operation op : Operation.values()) {
+            Stats stats = STATS.get(op);
+            LatencyHistogram h = stats.latency;
+            sb.append(System.lineSeparator())
+                    .append(op.name()).append(';')
+                    .append(h.count()).append(';')
+                    .append(millis(h.percentile(50))).append(';')
+                    .append(millis(h.percentile(99))).append(';')
+                    .append(millis(h.max())).append(';')
+                    .append(stats.rows.sum()).append(';')
+                    .append(stats.bytes.sum());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Записывает полную сводку в файл или, для "-", в стандартный поток ошибок
+     */
+    static void dump(String target) {
+        String report = report();
+        if (target.equals("-")) {
+            System.err.println(report);
+            return;
+        }
+        try {
+            Files.writeString(Path.of(target), report + System.lineSeparator(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            System.err.println("Ошибка записи метрик: " + e.getMessage());
+        }
+    }
+
+    private static String millis(long nanos) {
+        return String.format(Locale.ROOT, "%.2f", nanos / 1e6);
+    }
+
+    private static final class Stats {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder rows = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+    }
+}
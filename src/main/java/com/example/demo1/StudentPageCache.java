@@ -0,0 +1,122 @@
+package com.example.demo1;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кэш страниц строк файла данных для постраничного режима ({@link PagedStudentSource}).
+ * Страницы вытесняются в порядке давности обращения (LRU), когда оценка
+ * занимаемой ими памяти превышает заданный объем, поэтому память кэша
+ * не зависит от размера файла. Считает попадания, промахи и вытеснения.
+ * Используется в потоке JavaFX; счетчики можно читать из любого потока.
+ */
+final class StudentPageCache {
+
+    // Оценка памяти одного студента без строк имени, фамилии и отчества:
+    // объект, ссылка в массиве страницы и заголовки трех строк с массивами
+    private static final int STUDENT_OVERHEAD_BYTES = 56 + 4 + 3 * 40;
+
+    /**
+     * Загрузчик страницы по номеру
+     */
+    @FunctionalInterface
+    interface Loader {
+        Main.Student[] load(int page) throws IOException;
+    }
+
+    private record Page(Main.Student[] rows, long bytes) {
+    }
+
+    private final long capacityBytes;
+    // Порядок обхода — от давно использованных к недавним
+    private final LinkedHashMap<Integer, Page> pages = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param capacityBytes наибольший объем памяти страниц; последняя загруженная страница хранится всегда
+     */
+    StudentPageCache(long capacityBytes) {
+        this.capacityBytes = capacityBytes;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Возвращает страницу, загружая ее при промахе и вытесняя давно не используемые
+     * @param page номер страницы
+     * @param loader загрузчик страницы с диска
+     * @throws UncheckedIOException ошибка чтения страницы
+     */
+    Main.Student[] get(int page, Loader loader) {
+        Page cached = pages.get(page);
+        if (cached != null) {
+            hits.increment();
+            return cached.rows();
+        }
+        misses.increment();
+        Main.Student[] rows;
+        try {
+            rows = loader.load(page);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка чтения страницы " + page + ": " + e.getMessage(), e);
+        }
+        Page loaded = new Page(rows, estimateBytes(rows));
+        pages.put(page, loaded);
+        bytes += loaded.bytes();
+        Iterator<Map.Entry<Integer, Page>> eldest = pages.entrySet().iterator();
+        while (bytes > capacityBytes && pages.size() > 1) {
+            Page evicted = eldest.next().getValue();
+            eldest.remove();
+            bytes -= evicted.bytes();
+            evictions.increment();
+        }
+        return rows;
+    }
+
+    /**
+     * Удаляет все страницы; счетчики сохраняются
+     */
+    void clear() {
+        pages.clear();
+        bytes = 0;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /** @return количество обращений к страницам, найденным в кэше */
+    long hits() {
+        return hits.sum();
+    }
+
+    /** @return количество загрузок страниц с диска */
+    long misses() {
+        return misses.sum();
+    }
+
+    /** @return количество вытесненных страниц */
+    long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Краткая сводка для панели метрик
+     */
+    String summary() {
+        long h = hits();
+        long m = misses();
+        return String.format("Страницы: %d, %d МБ из %d; попаданий %d (%.0f%%), промахов %d, вытеснено %d",
+                pages.size(), bytes >> 20, capacityBytes >> 20, h, h + m == 0 ? 0.0 : 100.0 * h / (h + m), m, evictions());
+    }
+
+    private static long estimateBytes(Main.Student[] rows) {
+        long total = 16;
+        for (Main.Student s : rows) {
+            total += STUDENT_OVERHEAD_BYTES
+                    + 2L * (s.getSurname().length() + s.getName().length() + s.getPatronymic().length());
+        }
+        return total;
+    }
+}
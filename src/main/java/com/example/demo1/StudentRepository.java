@@ -0,0 +1,729 @@
+package com.example.demo1;
+
+import javafx.beans.Observable;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Хранилище списка студентов: загрузка, поиск и сохранение без интерфейса.
+ * Не использует инструментарий JavaFX (только наблюдаемые коллекции javafx.base,
+ * на которых построена модель), поэтому работает и без окна приложения,
+ * например во встроенном HTTP сервере {@link StudentHttpServer}.
+ *
+ * Изменения списка выполняются только методами хранилища и только в одном
+ * потоке — потоке JavaFX, если список показан в таблице. Изменения идут под
+ * блокировкой записи, а запросы {@link #query} и {@link #size} — под блокировкой
+ * чтения, поэтому запросы можно выполнять из любых потоков одновременно
+ * с работой интерфейса. Представления списка (FilteredList и т.п.)
+ * обновляются внутри изменения, в потоке, который его выполняет.
+ * Остальные потоки изменяют список через {@link StudentStore}: он принимает
+ * изменения с проверкой версий студентов и передает их сюда пачками.
+ *
+ * Сохранение: журнал изменений {@link StudentJournal} или полная
+ * перезапись файла данных в фоновом потоке ({@link #saveChanges}).
+ *
+ * Хранилище помнит размер и контрольную сумму содержимого файла данных,
+ * которое оно загрузило или записало само. По ним {@link StudentFileWatcher}
+ * отличает внешние изменения файла от собственных записей приложения.
+ */
+final class StudentRepository implements Closeable {
+
+    /**
+     * Условия запроса; null или пустая строка означает отсутствие условия.
+     * Текстовые поля сравниваются по подстроке без учета регистра, возраст — точно.
+     */
+    record Query(String surname, String group, String name, String patronymic, String city, Integer age) {
+    }
+
+    /**
+     * Копия значений полей студента, сделанная под блокировкой чтения
+     */
+    record Row(String surname, String name, String patronymic, int age, String city, String group) {
+        /**
+         * Копирует значения полей; вызывается под блокировкой хранилища
+         * или в потоке-владельце списка
+         */
+        static Row of(Main.Student s) {
+            return new Row(s.getSurname(), s.getName(), s.getPatronymic(), s.getAge(), s.getCity(), s.getGroup());
+        }
+
+        /**
+         * @return строка файла данных, как {@link StudentJournal#format}
+         */
+        String format() {
+            return surname + ";" + name + ";" + patronymic + ";" + age + ";" + city + ";" + group;
+        }
+    }
+
+    /**
+     * Результат запроса
+     * @param rows первые найденные студенты, не больше лимита
+     * @param matched общее количество найденных студентов
+     */
+    record QueryResult(List<Row> rows, int matched) {
+    }
+
+    /**
+     * Подготовленная синхронизация с измененным извне файлом данных
+     * @param version версия списка, для которой вычислены различия
+     * @param hunks блоки различий между списком и файлом
+     * @param fileStudents студенты из файла
+     * @param size размер прочитанного файла
+     * @param crc контрольная сумма прочитанного файла
+     */
+    record SyncPlan(long version, List<StudentDiff.Hunk> hunks, List<Main.Student> fileStudents, long size, long crc) {
+    }
+
+    /**
+     * Итог синхронизации: количество добавленных, удаленных и измененных строк
+     */
+    record SyncResult(int inserted, int removed, int changed) {
+    }
+
+    /**
+     * Изменение списка, принятое {@link StudentStore}
+     * @param kind вид изменения
+     * @param target студент списка; для добавления — новый студент
+     * @param values новые значения полей для правки, иначе null
+     */
+    record Change(Kind kind, Main.Student target, Main.Student values) {
+        enum Kind { ADD, UPDATE, DELETE }
+    }
+
+    // Размер и контрольная сумма содержимого файла данных
+    private record Signature(long size, long crc) {
+    }
+
+    private final Path dataPath;
+    // Extractor сообщает об изменении полей студента, чтобы индекс и фильтр видели правки
+    private final ObservableList<Main.Student> students = FXCollections.observableArrayList(
+            s -> new Observable[]{s});
+    // Триграммный индекс для поиска по фамилии и группе, обновляется вместе со списком
+    private final StudentSearchIndex searchIndex = new StudentSearchIndex(students);
+    // Количество по группам, городам и возрасту, обновляется вместе со списком
+    private final StudentStats stats = new StudentStats(students);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Path tmpPath;
+    private final boolean binarySnapshot;
+    private final Consumer<String> errorHandler;
+    // Журнал изменений, null в режиме полной перезаписи файла
+    private final StudentJournal journal;
+    // Номер изменения списка, увеличивается при каждом изменении под блокировкой записи
+    private long version;
+    // Содержимое файла данных, известное хранилищу, или null до завершения загрузки
+    private volatile Signature dataSignature;
+    // Режим перезаписи: список изменен после последнего запроса сохранения (поток-владелец списка)
+    private boolean unsaved;
+    // Режим перезаписи: запрошена запись файла и выполняется поток сохранения
+    private final AtomicBoolean saveRequested = new AtomicBoolean();
+    private final AtomicBoolean saving = new AtomicBoolean();
+    private volatile Thread saver;
+
+    /**
+     * @param dataPath путь к файлу данных
+     * @param journalMode true — сохранение через журнал изменений, false — перезапись файла
+     * @param binarySnapshot true — загрузка из двоичного снимка рядом с файлом данных
+     * @param errorHandler получатель сообщений о фоновых ошибках, вызывается в фоновых потоках
+     */
+    StudentRepository(Path dataPath, boolean journalMode, boolean binarySnapshot, Consumer<String> errorHandler) {
+        this.dataPath = dataPath;
+        this.tmpPath = dataPath.resolveSibling(dataPath.getFileName() + ".tmp");
+        this.binarySnapshot = binarySnapshot;
+        this.errorHandler = errorHandler;
+        this.journal = journalMode
+                ? new StudentJournal(dataPath, errorHandler, (size, crc) -> dataSignature = new Signature(size, crc))
+                : null;
+    }
+
+    /**
+     * @return наблюдаемый список для представлений; изменять его можно только через хранилище
+     */
+    ObservableList<Main.Student> students() {
+        return students;
+    }
+
+    /**
+     * @return статистика списка; читается в потоке-владельце списка
+     */
+    StudentStats stats() {
+        return stats;
+    }
+
+    /** @return путь к файлу данных */
+    Path getDataPath() {
+        return dataPath;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Очищает список и готовит загрузчик файла данных с учетом журнала и снимка.
+     * Пачки загрузчика добавляются через {@link #addBatch}, после успешной загрузки
+     * нужно вызвать {@link #loadFinished}.
+     * @return загрузчик или null, если файла данных нет (тогда хранилище готово к работе с пустым списком)
+     */
+    StudentFileLoader prepareLoad() {
+        dataSignature = null;
+        clear();
+        if (!Files.exists(dataPath)) {
+            // Пустое содержимое; файл создается журналом или при первом сохранении
+            dataSignature = new Signature(0, 0);
+            if (journal != null) {
+                journal.open(0, 0);
+            }
+            return null;
+        }
+        return new StudentFileLoader(dataPath,
+                journal != null ? StudentJournal.journalPathFor(dataPath) : null,
+                binarySnapshot ? StudentSnapshot.snapshotPathFor(dataPath) : null);
+    }
+
+    /**
+     * Добавляет пачку загруженных студентов в конец списка
+     */
+    void addBatch(List<Main.Student> batch) {
+        lock.writeLock().lock();
+        try {
+            students.addAll(batch);
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Завершает загрузку: применяет журнал изменений поверх снимка, открывает
+     * журнал для записи и при необходимости строит двоичный снимок в фоне
+     * @param loader загрузчик, завершивший работу без отмены
+     */
+    void loadFinished(StudentFileLoader loader) {
+        if (binarySnapshot && !loader.isFromSnapshot()) {
+            rebuildSnapshot();
+        }
+        if (journal != null) {
+            lock.writeLock().lock();
+            try {
+                StudentJournal.replay(loader.getJournalRecords(), students);
+                version++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            journal.open(loader.getSnapshotSize(), loader.getSnapshotCrc());
+        }
+        dataSignature = new Signature(loader.getSnapshotSize(), loader.getSnapshotCrc());
+    }
+
+    /**
+     * Загружает файл данных в вызывающем потоке, без интерфейса.
+     * Строки с ошибками пропускаются, итог по ним передается получателю ошибок.
+     * @return количество студентов после загрузки
+     */
+    int load() throws Exception {
+        StudentFileLoader loader = prepareLoad();
+        if (loader == null) {
+            return 0;
+        }
+        loader.load(new StudentFileLoader.Sink() {
+            @Override
+            public void batch(List<Main.Student> batch) {
+                addBatch(batch);
+            }
+
+            @Override
+            public void progress(long done, long total) {
+            }
+
+            @Override
+            public void error(String message) {
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+        });
+        if (loader.getErrorCount() > 0) {
+            errorHandler.accept(loader.getLastError() + " (ошибок: " + loader.getErrorCount() + ")");
+        }
+        loadFinished(loader);
+        return size();
+    }
+
+    /**
+     * Строит двоичный снимок из текстового файла в фоновом потоке,
+     * чтобы следующий запуск не разбирал текст заново
+     */
+    private void rebuildSnapshot() {
+        Path snapshotPath = StudentSnapshot.snapshotPathFor(dataPath);
+        Thread.ofVirtual().name("students-snapshot").start(() -> {
+            try {
+                StudentSnapshot.importText(dataPath, snapshotPath);
+            } catch (IOException ex) {
+                errorHandler.accept("Ошибка создания снимка: " + ex.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Очищает список без сохранения
+     */
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            students.forEach(StudentStore::markDeleted);
+            students.clear();
+            version++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Применяет пачку изменений, принятых {@link StudentStore}, под одной блокировкой
+     * записи и сохраняет их одной записью журнала.
+     * Изменения применяются группами: правки, добавления в конец списка одним
+     * изменением, удаления по убыванию индексов. Результат совпадает с применением
+     * по одному, потому что хранилище не принимает изменений студента после его
+     * удаления, а добавления не сдвигают индексы остальных студентов.
+     * Позиции студентов находятся по поисковому индексу, без просмотра списка.
+     * В режиме перезаписи файл здесь не сохраняется, см. {@link #saveChanges}.
+     * Вызывается в потоке-владельце списка.
+     * @param changes изменения в порядке принятия
+     * @return количество изменений, не примененных потому, что студента уже нет в списке
+     */
+    int applyChanges(List<Change> changes) {
+        lock.writeLock().lock();
+        try {
+            // Новые студенты пачки и позиции в списке остальных изменяемых студентов
+            Set<Main.Student> added = Collections.newSetFromMap(new IdentityHashMap<>());
+            Map<Main.Student, Integer> positions = new IdentityHashMap<>();
+            for (Change c : changes) {
+                if (c.kind() == Change.Kind.ADD) {
+                    added.add(c.target());
+                } else if (!added.contains(c.target())) {
+                    positions.putIfAbsent(c.target(), searchIndex.positionOf(c.target()));
+                }
+            }
+
+            StudentJournal.Batch log = new StudentJournal.Batch();
+            List<Main.Student> adds = new ArrayList<>();
+            int[] deletes = new int[changes.size()];
+            int deleteCount = 0;
+            int missing = 0;
+            for (Change c : changes) {
+                Main.Student target = c.target();
+                Integer pos = positions.get(target);
+                switch (c.kind()) {
+                    case ADD -> adds.add(target);
+                    case UPDATE -> {
+                        if (added.contains(target)) {
+                            // Запись добавления пишется ниже, уже с новыми значениями
+                            target.setValues(c.values());
+                        } else if (pos == null || pos < 0) {
+                            missing++;
+                        } else {
+                            target.setValues(c.values());
+                            log.update(pos, target);
+                        }
+                    }
+                    case DELETE -> {
+                        if (added.remove(target)) {
+                            continue;
+                        }
+                        if (pos == null || pos < 0) {
+                            missing++;
+                        } else {
+                            deletes[deleteCount++] = pos;
+                            positions.put(target, -1);
+                        }
+                    }
+                }
+            }
+            adds.removeIf(st -> !added.contains(st));
+            if (!adds.isEmpty()) {
+                students.addAll(adds);
+                for (Main.Student st : adds) {
+                    log.add(st);
+                }
+            }
+            // По убыванию, подряд идущие индексы удаляются одним изменением
+            Arrays.sort(deletes, 0, deleteCount);
+            int end = deleteCount - 1;
+            while (end >= 0) {
+                int start = end;
+                while (start > 0 && deletes[start - 1] == deletes[start] - 1) {
+                    start--;
+                }
+                students.subList(deletes[start], deletes[end] + 1).clear();
+                for (int i = end; i >= start; i--) {
+                    log.delete(deletes[i]);
+                }
+                end = start - 1;
+            }
+
+            if (!log.isEmpty()) {
+                version++;
+                if (journal != null) {
+                    journal.log(log);
+                    compactJournalIfNeeded();
+                } else {
+                    unsaved = true;
+                }
+            }
+            return missing;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Добавляет пачку импортируемых студентов в конец списка одним изменением.
+     * В режиме журнала пачка сразу пишется в журнал одной записью на диск,
+     * в режиме перезаписи файл сохраняется один раз в {@link #finishImport}.
+     */
+    void importBatch(List<Main.Student> batch) {
+        lock.writeLock().lock();
+        try {
+            students.addAll(batch);
+            version++;
+            if (journal != null) {
+                journal.logAddAll(batch);
+                compactJournalIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Завершает импорт: в режиме перезаписи запускает сохранение файла данных
+     */
+    void finishImport() {
+        if (journal == null) {
+            unsaved = true;
+            saveChanges();
+        }
+    }
+
+    /**
+     * В режиме перезаписи запускает сохранение файла в фоновом потоке, если список
+     * изменялся после прошлого вызова. Запросы, пришедшие во время записи,
+     * выполняются одной следующей записью. Ошибки передаются получателю ошибок.
+     * Вызывается в потоке-владельце списка.
+     */
+    void saveChanges() {
+        if (!unsaved) {
+            return;
+        }
+        unsaved = false;
+        saveRequested.set(true);
+        if (saving.compareAndSet(false, true)) {
+            saver = Thread.ofVirtual().name("students-save").start(this::runSaves);
+        }
+    }
+
+    private void runSaves() {
+        do {
+            while (saveRequested.getAndSet(false)) {
+                try {
+                    saveToFile();
+                } catch (IOException e) {
+                    errorHandler.accept("Ошибка сохранения файла: " + e.getMessage());
+                }
+            }
+            saving.set(false);
+            // Запрос мог прийти после проверки, но до сброса признака записи
+        } while (saveRequested.get() && saving.compareAndSet(false, true));
+    }
+
+    /**
+     * Отменяет импорт: удаляет из списка импортированных студентов, которые еще в нем есть.
+     * Студенты ищутся по ссылке, поэтому откат корректен, даже если список
+     * менялся во время импорта. Подряд идущие студенты удаляются одним изменением.
+     * @param imported студенты, добавленные {@link #importBatch}
+     * @return количество удаленных студентов
+     */
+    int rollbackImport(List<Main.Student> imported) {
+        Set<Main.Student> rollback = Collections.newSetFromMap(new IdentityHashMap<>(imported.size()));
+        rollback.addAll(imported);
+        lock.writeLock().lock();
+        try {
+            // Индексы по убыванию, чтобы удаление не сдвигало еще не удаленные
+            int[] indexes = new int[rollback.size()];
+            int count = 0;
+            for (int i = students.size() - 1; i >= 0 && count < indexes.length; i--) {
+                if (rollback.contains(students.get(i))) {
+                    StudentStore.markDeleted(students.get(i));
+                    indexes[count++] = i;
+                }
+            }
+            int end = 0;
+            while (end < count) {
+                int start = end;
+                while (end + 1 < count && indexes[end + 1] == indexes[end] - 1) {
+                    end++;
+                }
+                students.subList(indexes[end], indexes[start] + 1).clear();
+                end++;
+            }
+            if (count > 0) {
+                version++;
+                if (journal != null) {
+                    journal.logDeleteAll(Arrays.copyOf(indexes, count));
+                    compactJournalIfNeeded();
+                }
+            }
+            return count;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Запускает фоновое сворачивание журнала в новый снимок, если журнал превысил порог.
+     * Строки снимка формируются здесь, под блокировкой записи, чтобы соответствовать
+     * состоянию списка на момент постановки в очередь.
+     */
+    private void compactJournalIfNeeded() {
+        if (journal.needsCompaction()) {
+            List<String> lines = new ArrayList<>(students.size());
+            for (Main.Student st : students) {
+                lines.add(StudentJournal.format(st));
+            }
+            journal.compact(lines);
+        }
+    }
+
+    /**
+     * Сохраняет список студентов в файл в его формате (текст или gzip, см. {@link StudentFileFormat}).
+     * Файл записывается во временный и подменяет файл данных атомарным переименованием,
+     * поэтому читатели файла никогда не видят его частично записанным.
+     * Вызывается только в потоке сохранения: значения полей копируются
+     * под блокировкой чтения, поэтому файл соответствует одному состоянию списка,
+     * а строки формируются и пишутся без блокировки.
+     * Изменение, примененное во время записи, попадет в файл следующей записью.
+     */
+    private void saveToFile() throws IOException {
+        StudentEvents.Save event = new StudentEvents.Save("rewrite");
+        event.start();
+        try {
+            Row[] rows;
+            lock.readLock().lock();
+            try {
+                rows = new Row[students.size()];
+                for (int i = 0; i < rows.length; i++) {
+                    rows[i] = Row.of(students.get(i));
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+            long[] written = StudentFileFormat.write(tmpPath, StudentFileFormat.isCompressed(dataPath),
+                    () -> Arrays.stream(rows).map(Row::format).iterator());
+            long size = written[0];
+            dataSignature = new Signature(size, written[1]);
+            Files.move(tmpPath, dataPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            event.rows = rows.length;
+            event.bytes = size;
+        } finally {
+            event.finish();
+        }
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * @return true, если загрузка завершена и содержимое файла данных известно хранилищу
+     */
+    boolean isReady() {
+        return dataSignature != null;
+    }
+
+    /**
+     * @return true, если файл с таким размером и контрольной суммой загружен или записан самим хранилищем
+     */
+    boolean isKnownContent(long size, long crc) {
+        return new Signature(size, crc).equals(dataSignature);
+    }
+
+    /**
+     * Вычисляет различия между списком и новым содержимым файла данных.
+     * Можно вызывать из любого потока; список копируется под блокировкой чтения.
+     * @param fileStudents студенты из файла в порядке строк
+     * @param size размер прочитанного файла
+     * @param crc контрольная сумма прочитанного файла
+     * @return план синхронизации
+     */
+    SyncPlan planSync(List<Main.Student> fileStudents, long size, long crc) {
+        List<String> current;
+        long planVersion;
+        lock.readLock().lock();
+        try {
+            current = new ArrayList<>(students.size());
+            for (Main.Student s : students) {
+                current.add(StudentJournal.format(s));
+            }
+            planVersion = version;
+        } finally {
+            lock.readLock().unlock();
+        }
+        List<String> updated = new ArrayList<>(fileStudents.size());
+        for (Main.Student s : fileStudents) {
+            updated.add(StudentJournal.format(s));
+        }
+        return new SyncPlan(planVersion, StudentDiff.diff(current, updated), fileStudents, size, crc);
+    }
+
+    /**
+     * Применяет план синхронизации: изменяет только различающиеся строки,
+     * поэтому неизменные студенты (и выделение в таблице) сохраняются.
+     * Измененные строки обновляются на месте. Файл становится новым снимком,
+     * журнал изменений начинается заново.
+     * Вызывается в потоке-владельце списка.
+     * @return итог или null, если список изменился после вычисления плана
+     */
+    SyncResult applySync(SyncPlan plan) {
+        lock.writeLock().lock();
+        try {
+            if (plan.version() != version) {
+                return null;
+            }
+            int inserted = 0;
+            int removed = 0;
+            int changed = 0;
+            List<StudentDiff.Hunk> hunks = plan.hunks();
+            // С конца, чтобы позиции еще не обработанных блоков не сдвигались
+            for (int i = hunks.size() - 1; i >= 0; i--) {
+                StudentDiff.Hunk h = hunks.get(i);
+                int common = Math.min(h.oldLength(), h.newLength());
+                for (int j = 0; j < common; j++) {
+                    Main.Student target = students.get(h.oldFrom() + j);
+                    target.setValues(plan.fileStudents().get(h.newFrom() + j));
+                    StudentStore.touch(target);
+                }
+                changed += common;
+                if (h.oldLength() > common) {
+                    List<Main.Student> dropped = students.subList(h.oldFrom() + common, h.oldTo());
+                    dropped.forEach(StudentStore::markDeleted);
+                    dropped.clear();
+                    removed += h.oldLength() - common;
+                } else if (h.newLength() > common) {
+                    students.addAll(h.oldFrom() + common, plan.fileStudents().subList(h.newFrom() + common, h.newTo()));
+                    inserted += h.newLength() - common;
+                }
+            }
+            version++;
+            dataSignature = new Signature(plan.size(), plan.crc());
+            if (journal != null) {
+                journal.open(plan.size(), plan.crc());
+            }
+            return new SyncResult(inserted, removed, changed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Создает условие фильтра для таблицы по условиям поиска,
+     * см. {@link StudentSearchIndex#filter}. Можно вызывать из фоновых потоков.
+     */
+    Predicate<Main.Student> filter(StudentSearchIndex.Criteria criteria) {
+        return searchIndex.filter(criteria);
+    }
+
+    /**
+     * Создает порядок найденных студентов для нечеткого поиска фамилии,
+     * см. {@link StudentSearchIndex#ranking}
+     */
+    Comparator<Main.Student> ranking(StudentSearchIndex.Criteria criteria) {
+        return searchIndex.ranking(criteria);
+    }
+
+    /**
+     * @return количество студентов
+     */
+    int size() {
+        lock.readLock().lock();
+        try {
+            return students.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ищет студентов по условиям запроса; можно вызывать из любого потока.
+     * Условия по фамилии, группе, городу и возрасту отбираются по индексу,
+     * имя и отчество проверяются перебором кандидатов.
+     * @param q условия
+     * @param limit наибольшее количество возвращаемых строк
+     * @return найденные студенты в порядке списка
+     */
+    QueryResult query(Query q, int limit) {
+        String name = lower(q.name());
+        String patronymic = lower(q.patronymic());
+        StudentSearchIndex.Criteria criteria = new StudentSearchIndex.Criteria(q.surname(), q.group(), q.city(),
+                q.age() == null ? StudentSearchIndex.Criteria.ANY_AGE_MIN : q.age(),
+                q.age() == null ? StudentSearchIndex.Criteria.ANY_AGE_MAX : q.age());
+        List<Row> rows = new ArrayList<>(Math.min(limit, 1024));
+        int matched = 0;
+        lock.readLock().lock();
+        try {
+            List<Main.Student> candidates = criteria.isEmpty() ? students : searchIndex.search(criteria);
+            for (Main.Student s : candidates) {
+                if (contains(s.getName(), name) && contains(s.getPatronymic(), patronymic)) {
+                    if (matched++ < limit) {
+                        rows.add(Row.of(s));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return new QueryResult(rows, matched);
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    private static String lower(String value) {
+        return isEmpty(value) ? null : value.toLowerCase();
+    }
+
+    private static boolean contains(String value, String lowerPart) {
+        return lowerPart == null || (value != null && value.toLowerCase().contains(lowerPart));
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Дожидается записи журнала и закрывает его
+     */
+    @Override
+    public void close() {
+        if (journal != null) {
+            journal.close();
+        }
+        // Дожидается последней записи файла в режиме перезаписи
+        Thread t = saver;
+        if (t != null) {
+            try {
+                t.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package com.example.demo1;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.SplittableRandom;
+
+/**
+ * Генератор синтетических списков студентов в формате файла данных
+ * {@code Фамилия;Имя;Отчество;Возраст;Город;Группа} для воспроизведения
+ * работы с большими файлами.
+ *
+ * Данные правдоподобны: фамилия и отчество согласованы с полом имени,
+ * крупные города встречаются чаще малых, возраст в основном студенческий,
+ * группы записаны как ФАКУЛЬТЕТ-ГОД-НОМЕР. Заданная доля строк содержит
+ * ошибки разных видов, которые загрузка должна пропустить.
+ * Строки зависят только от начального значения и доли ошибок, поэтому
+ * одинаковые параметры дают одинаковый файл.
+ */
+final class StudentRosterGenerator {
+
+    static final long DEFAULT_SEED = 20240901L;
+    static final double DEFAULT_MALFORMED_SHARE = 0.01;
+
+    // Мужские формы фамилий; женская форма получается в feminine
+    private static final String[] SURNAMES = {
+            "Иванов", "Смирнов", "Кузнецов", "Попов", "Васильев", "Петров", "Соколов", "Михайлов",
+            "Новиков", "Фёдоров", "Морозов", "Волков", "Алексеев", "Лебедев", "Семёнов", "Егоров",
+            "Павлов", "Козлов", "Степанов", "Николаев", "Орлов", "Андреев", "Макаров", "Никитин",
+            "Захаров", "Зайцев", "Соловьёв", "Борисов", "Яковлев", "Григорьев", "Романов", "Воробьёв",
+            "Сергеев", "Кузьмин", "Фролов", "Александров", "Дмитриев", "Королёв", "Гусев", "Киселёв",
+            "Ильин", "Максимов", "Поляков", "Сорокин", "Виноградов", "Ковалёв", "Белов", "Медведев",
+            "Антонов", "Тарасов", "Жуков", "Баранов", "Филиппов", "Комаров", "Давыдов", "Беляев",
+            "Герасимов", "Богданов", "Осипов", "Сидоров", "Матвеев", "Титов", "Марков", "Миронов",
+            "Крылов", "Куликов", "Карпов", "Власов", "Мельников", "Денисов", "Гаврилов", "Тихонов",
+            "Казаков", "Афанасьев", "Данилов", "Савельев", "Тимофеев", "Фомин", "Чернов", "Абрамов",
+            "Мартынов", "Ефимов", "Федотов", "Щербаков", "Назаров", "Калинин", "Исаев", "Чернышёв",
+            "Быков", "Маслов", "Родионов", "Коновалов", "Лазарев", "Воронин", "Климов", "Филатов",
+            "Пономарёв", "Голубев", "Кудрявцев", "Прохоров", "Наумов", "Потапов", "Журавлёв", "Овчинников",
+            "Трофимов", "Леонов", "Соболев", "Ермаков", "Колесников", "Гончаров", "Емельянов", "Никифоров",
+            "Грачёв", "Котов", "Гришин", "Ефремов", "Архипов", "Громов", "Кириллов", "Малышев",
+            "Панов", "Моисеев", "Румянцев", "Акимов", "Кондратьев", "Бирюков", "Горбунов", "Анисимов",
+            "Еремеев", "Тихомиров", "Галкин", "Лукьянов", "Михеев", "Скворцов", "Юдин", "Белоусов",
+            "Нестеров", "Симонов", "Прокофьев", "Харитонов", "Князев", "Цветков", "Левин", "Митрофанов",
+            "Воронцов", "Аксёнов", "Софронов", "Мальцев", "Логинов", "Горшков", "Савин", "Краснов",
+            "Майоров", "Демидов", "Елисеев", "Рыбаков", "Сафонов", "Плотников", "Дёмин", "Хохлов",
+            "Жданов", "Ершов", "Островский", "Вишневский", "Ковальский", "Покровский", "Трубецкой", "Толстой",
+            "Шевченко", "Бондаренко", "Коваленко", "Ткаченко", "Кравченко", "Ким", "Пак", "Шульц",
+            "Петров-Водкин", "Мамин-Сибиряк", "Салтыков-Щедрин", "Ван Хуан"
+    };
+    private static final String[] MALE_NAMES = {
+            "Александр", "Дмитрий", "Максим", "Сергей", "Андрей", "Алексей", "Артём", "Илья",
+            "Кирилл", "Михаил", "Никита", "Матвей", "Роман", "Егор", "Арсений", "Иван",
+            "Денис", "Евгений", "Даниил", "Тимофей", "Владислав", "Игорь", "Владимир", "Павел",
+            "Руслан", "Марк", "Константин", "Тимур", "Олег", "Ярослав", "Антон", "Николай",
+            "Глеб", "Данила", "Савелий", "Вадим", "Степан", "Юрий", "Богдан", "Фёдор",
+            "Георгий", "Лев", "Семён", "Пётр", "Григорий", "Виктор", "Станислав", "Эльдар"
+    };
+    private static final String[] FEMALE_NAMES = {
+            "Анастасия", "Мария", "Анна", "Виктория", "Екатерина", "Наталья", "Марина", "Полина",
+            "София", "Дарья", "Алиса", "Ксения", "Александра", "Елена", "Валерия", "Вероника",
+            "Арина", "Елизавета", "Ольга", "Татьяна", "Юлия", "Кристина", "Ирина", "Светлана",
+            "Алина", "Варвара", "Ульяна", "Милана", "Диана", "Ева", "Василиса", "Алёна",
+            "Таисия", "Яна", "Людмила", "Надежда", "Евгения", "Маргарита", "Карина", "Софья",
+            "Вера", "Любовь", "Злата", "Есения", "Эвелина", "Анна-Мария"
+    };
+    // Мужская и женская формы отчества
+    private static final String[][] PATRONYMICS = {
+            {"Александрович", "Александровна"}, {"Дмитриевич", "Дмитриевна"}, {"Сергеевич", "Сергеевна"},
+            {"Андреевич", "Андреевна"}, {"Алексеевич", "Алексеевна"}, {"Владимирович", "Владимировна"},
+            {"Михайлович", "Михайловна"}, {"Николаевич", "Николаевна"}, {"Игоревич", "Игоревна"},
+            {"Евгеньевич", "Евгеньевна"}, {"Олегович", "Олеговна"}, {"Викторович", "Викторовна"},
+            {"Павлович", "Павловна"}, {"Юрьевич", "Юрьевна"}, {"Иванович", "Ивановна"},
+            {"Романович", "Романовна"}, {"Максимович", "Максимовна"}, {"Константинович", "Константиновна"},
+            {"Вадимович", "Вадимовна"}, {"Анатольевич", "Анатольевна"}, {"Геннадьевич", "Геннадьевна"},
+            {"Валерьевич", "Валерьевна"}, {"Вячеславович", "Вячеславовна"}, {"Петрович", "Петровна"},
+            {"Фёдорович", "Фёдоровна"}, {"Семёнович", "Семёновна"}, {"Артёмович", "Артёмовна"},
+            {"Ильич", "Ильинична"}, {"Никитич", "Никитична"}, {"Кузьмич", "Кузьминична"},
+            {"Григорьевич", "Григорьевна"}, {"Степанович", "Степановна"}, {"Борисович", "Борисовна"},
+            {"Тимурович", "Тимуровна"}, {"Русланович", "Руслановна"}, {"Львович", "Львовна"}
+    };
+    // Города по убыванию численности населения: начало списка выбирается чаще
+    private static final String[] CITIES = {
+            "Москва", "Санкт-Петербург", "Новосибирск", "Екатеринбург", "Казань", "Нижний Новгород",
+            "Красноярск", "Челябинск", "Самара", "Уфа", "Ростов-на-Дону", "Краснодар", "Омск",
+            "Воронеж", "Пермь", "Волгоград", "Саратов", "Тюмень", "Тольятти", "Ижевск", "Барнаул",
+            "Ульяновск", "Иркутск", "Хабаровск", "Махачкала", "Ярославль", "Владивосток", "Оренбург",
+            "Томск", "Кемерово", "Новокузнецк", "Рязань", "Набережные Челны", "Астрахань", "Пенза",
+            "Киров", "Липецк", "Балашиха", "Чебоксары", "Калининград", "Тула", "Курск", "Ставрополь",
+            "Севастополь", "Улан-Удэ", "Сочи", "Тверь", "Магнитогорск", "Иваново", "Брянск",
+            "Белгород", "Сургут", "Владимир", "Архангельск", "Чита", "Смоленск", "Калуга",
+            "Волжский", "Череповец", "Вологда", "Орёл", "Якутск", "Мурманск", "Петропавловск-Камчатский",
+            "Великий Новгород", "Псков", "Йошкар-Ола", "Кострома", "Петрозаводск", "Южно-Сахалинск"
+    };
+    private static final String[] FACULTIES = {
+            "ИВТ", "ПИ", "ПМИ", "БИ", "ИБ", "ЭК", "МН", "ЮР", "ФИЛ", "ЛИНГ", "ХИМ", "ФИЗ", "МАТ", "ЖУР", "ПСИ", "ИСТ"
+    };
+
+    private final SplittableRandom random;
+    private final double malformedShare;
+
+    /**
+     * @param seed начальное значение генератора
+     * @param malformedShare доля строк с ошибками, от 0 до 1
+     */
+    StudentRosterGenerator(long seed, double malformedShare) {
+        if (!(malformedShare >= 0 && malformedShare <= 1)) {
+            throw new IllegalArgumentException("Доля строк с ошибками должна быть от 0 до 1: " + malformedShare);
+        }
+        this.random = new SplittableRandom(seed);
+        this.malformedShare = malformedShare;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * @return следующая строка файла: корректная или, с заданной долей, с ошибкой
+     */
+    String nextLine() {
+        if (malformedShare > 0 && random.nextDouble() < malformedShare) {
+            return malformedLine();
+        }
+        return String.join(";", nextFields());
+    }
+
+    /**
+     * @return поля следующего корректного студента в порядке файла:
+     *         фамилия, имя, отчество, возраст, город, группа
+     */
+    String[] nextFields() {
+        boolean female = random.nextBoolean();
+        String surname = SURNAMES[random.nextInt(SURNAMES.length)];
+        String[] names = female ? FEMALE_NAMES : MALE_NAMES;
+        return new String[]{
+                female ? feminine(surname) : surname,
+                names[random.nextInt(names.length)],
+                PATRONYMICS[random.nextInt(PATRONYMICS.length)][female ? 1 : 0],
+                Integer.toString(age()),
+                // Квадрат равномерной величины смещает выбор к началу списка
+                CITIES[(int) (CITIES.length * square(random.nextDouble()))],
+                group()
+        };
+    }
+
+    /**
+     * @return следующий корректный студент
+     */
+    Main.Student nextStudent() {
+        String[] p = nextFields();
+        return new Main.Student(p[1], p[0], p[2], Integer.parseInt(p[3]), p[4], p[5]);
+    }
+
+    /**
+     * @param rows количество строк
+     * @return строки, создаваемые при обходе; обходить можно один раз
+     */
+    Iterable<String> lines(long rows) {
+        return () -> new Iterator<>() {
+            private long left = rows;
+
+            @Override
+            public boolean hasNext() {
+                return left > 0;
+            }
+
+            @Override
+            public String next() {
+                if (left == 0) {
+                    throw new NoSuchElementException();
+                }
+                left--;
+                return nextLine();
+            }
+        };
+    }
+
+    /**
+     * Записывает файл списка через временный файл; файл с расширением .gz сжимается
+     * @param target путь к файлу
+     * @param rows количество строк
+     */
+    void write(Path target, long rows) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        StudentFileFormat.write(tmp, target.getFileName().toString().endsWith(StudentFileFormat.GZIP_SUFFIX),
+                lines(rows));
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    private static double square(double x) {
+        return x * x;
+    }
+
+    /**
+     * Женская форма фамилии: Иванов — Иванова, Островский — Островская,
+     * Толстой — Толстая; несклоняемые фамилии (Шевченко, Ким) не меняются.
+     * В двойной фамилии изменяется каждая часть
+     */
+    private static String feminine(String surname) {
+        int dash = surname.indexOf('-');
+        if (dash > 0) {
+            return feminine(surname.substring(0, dash)) + "-" + feminine(surname.substring(dash + 1));
+        }
+        if (surname.endsWith("ий") || surname.endsWith("ой")) {
+            return surname.substring(0, surname.length() - 2) + "ая";
+        }
+        if (surname.endsWith("ов") || surname.endsWith("ев") || surname.endsWith("ёв")
+                || surname.endsWith("ин") || surname.endsWith("ын")) {
+            return surname + "а";
+        }
+        return surname;
+    }
+
+    // Девять из десяти — от 17 до 24 лет, остальные — от 25 до 60
+    private int age() {
+        return random.nextInt(10) < 9 ? 17 + random.nextInt(8) : 25 + random.nextInt(36);
+    }
+
+    // ФАКУЛЬТЕТ-ГОД-НОМЕР, например ИВТ-23-2
+    private String group() {
+        return FACULTIES[random.nextInt(FACULTIES.length)] + "-" + (19 + random.nextInt(7)) + "-" + (1 + random.nextInt(6));
+    }
+
+    /**
+     * Строка с одной из ошибок, которые отклоняет загрузка
+     */
+    private String malformedLine() {
+        String[] p = nextFields();
+        switch (random.nextInt(7)) {
+            case 0 -> {
+                // Неверное число полей
+                return String.join(";", p[0], p[1], p[2], p[3], p[4]);
+            }
+            case 1 -> p[0] = p[0] + random.nextInt(10);
+            case 2 -> p[3] = "двадцать";
+            case 3 -> p[3] = random.nextBoolean() ? "0" : Integer.toString(121 + random.nextInt(900));
+            case 4 -> p[1] = "";
+            case 5 -> p[4] = p[4] + "!";
+            default -> {
+                // Строка без разделителей
+                return "Испорченная строка " + random.nextInt(100_000);
+            }
+        }
+        return String.join(";", p);
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Создание файла списка из командной строки:
+     * {@code <строк> <файл> [--seed N] [--malformed доля]}.
+     * Файл с расширением .gz записывается сжатым
+     */
+    public static void main(String[] args) throws IOException {
+        long seed = DEFAULT_SEED;
+        double malformedShare = DEFAULT_MALFORMED_SHARE;
+        long rows = -1;
+        Path target = null;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--seed" -> seed = Long.parseLong(args[++i]);
+                    case "--malformed" -> malformedShare = Double.parseDouble(args[++i]);
+                    default -> {
+                        if (rows < 0) {
+                            rows = Long.parseLong(args[i].replace("_", ""));
+                        } else if (target == null) {
+                            target = Path.of(args[i]);
+                        } else {
+                            throw new IllegalArgumentException(args[i]);
+                        }
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            rows = -1;
+        }
+        if (rows < 0 || target == null || !(malformedShare >= 0 && malformedShare <= 1)) {
+            System.err.println("Использование: <строк> <файл> [--seed N] [--malformed доля от 0 до 1]");
+            System.exit(2);
+        }
+        long started = System.nanoTime();
+        new StudentRosterGenerator(seed, malformedShare).write(target, rows);
+        System.out.printf("Записан %s: строк %d, байт %d, %d мс%n", target, rows, Files.size(target),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+}
@@ -0,0 +1,512 @@
+package com.example.demo1;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+/**
+ * Поисковый индекс по фамилии, группе, городу и возрасту студентов.
+ * Отвечает на запросы вида "фамилия содержит X, группа содержит Y, город
+ * содержит Z, возраст от A до B" без учета регистра с теми же результатами
+ * и в том же порядке, что и линейный фильтр по списку, но без полного перебора
+ * и без вызова toLowerCase для каждой строки на каждый запрос.
+ *
+ * Фамилия ищется по триграммам ({@link TrigramIndex}). Для группы и города
+ * хранится сжатое множество идентификаторов на каждое различное значение
+ * ({@link CompressedBitmap}); условие-подстрока превращается в объединение
+ * множеств значений, содержащих подстроку, — различных значений немного.
+ * Возраст хранится в отсортированном индексе {@link SortedValueIndex}.
+ * Условия объединяются пересечением множеств и отсортированных массивов.
+ *
+ * Для нечеткого поиска фамилии ключи фамилий ({@link Transliteration#fold})
+ * хранятся в BK-дереве ({@link BkTree}) и в множествах идентификаторов на ключ:
+ * запрос находит в дереве близкие ключи и объединяет их множества.
+ *
+ * Индекс обновляется сам через ListChangeListener. Чтобы индекс видел правки
+ * полей, список должен быть создан с extractor, сообщающим об изменении
+ * студента. Индекс подписывается на список раньше представлений
+ * (FilteredList), поэтому его значения обновляются до их пересчета.
+ * Идентификаторы записей выдаются в порядке списка, поэтому сортировка
+ * по идентификатору совпадает с порядком в списке.
+ *
+ * Изменения индекса выполняются в потоке JavaFX под блокировкой записи,
+ * поэтому {@link #search} и {@link #filter} можно вызывать из фоновых потоков.
+ * Условие, возвращаемое {@link #filter}, проверяется только в потоке JavaFX.
+ */
+class StudentSearchIndex {
+
+    /**
+     * Условия поиска. Текстовые условия — подстроки без учета регистра,
+     * пустая строка (или null) означает отсутствие условия; возраст — диапазон
+     * [minAge, maxAge] включительно, {@link #ANY_AGE_MIN}..{@link #ANY_AGE_MAX} — без условия.
+     * При fuzzy фамилия ищется целиком с опечатками и в транслитерации:
+     * условие хранит ключ фамилии, найденные студенты упорядочиваются по расстоянию.
+     */
+    record Criteria(String surname, String group, String city, int minAge, int maxAge, boolean fuzzy) {
+        static final int ANY_AGE_MIN = Integer.MIN_VALUE;
+        static final int ANY_AGE_MAX = Integer.MAX_VALUE;
+        // Ключи не длиннее этого допускают одну правку, более длинные — две
+        private static final int SHORT_KEY = 4;
+
+        Criteria {
+            surname = fuzzy ? Transliteration.fold(surname) : normalize(surname);
+            group = normalize(group);
+            city = normalize(city);
+        }
+
+        /** Условия с поиском фамилии по подстроке */
+        Criteria(String surname, String group, String city, int minAge, int maxAge) {
+            this(surname, group, city, minAge, maxAge, false);
+        }
+
+        /** Условия только по фамилии и группе */
+        Criteria(String surname, String group) {
+            this(surname, group, "", ANY_AGE_MIN, ANY_AGE_MAX);
+        }
+
+        /** @return true, если фамилия ищется нечетко */
+        boolean fuzzySurname() {
+            return fuzzy && !surname.isEmpty();
+        }
+
+        /** @return допустимое расстояние редактирования ключа фамилии при нечетком поиске */
+        int surnameDistance() {
+            return surname.length() <= SHORT_KEY ? 1 : 2;
+        }
+
+        boolean hasAgeRange() {
+            return minAge != ANY_AGE_MIN || maxAge != ANY_AGE_MAX;
+        }
+
+        /** @return true, если условий нет */
+        boolean isEmpty() {
+            return surname.isEmpty() && group.isEmpty() && city.isEmpty() && !hasAgeRange();
+        }
+
+        /**
+         * Проверяет студента без индекса (постраничный режим); результат совпадает с поиском по индексу
+         */
+        boolean matches(Main.Student s) {
+            return rank(s) >= 0;
+        }
+
+        /**
+         * Проверяет студента без индекса и оценивает близость фамилии
+         * @return -1, если студент не подходит; иначе расстояние ключа фамилии при нечетком поиске или 0
+         */
+        int rank(Main.Student s) {
+            if (!(group.isEmpty() || normalize(s.getGroup()).contains(group))
+                    || !(city.isEmpty() || normalize(s.getCity()).contains(city))
+                    || s.getAge() < minAge || s.getAge() > maxAge) {
+                return -1;
+            }
+            if (fuzzySurname()) {
+                String key = Transliteration.fold(s.getSurname());
+                if (!BkTree.within(key, surname, surnameDistance())) {
+                    return -1;
+                }
+                return BkTree.distance(key, surname);
+            }
+            return surname.isEmpty() || normalize(s.getSurname()).contains(surname) ? 0 : -1;
+        }
+    }
+
+    private final ObservableList<Main.Student> students;
+    private final TrigramIndex surnameIndex = new TrigramIndex();
+    // Ключи фамилий для нечеткого поиска и идентификаторы записей по ключу
+    private final BkTree surnameTree = new BkTree();
+    private final Map<String, CompressedBitmap> surnameKeyIndex = new HashMap<>();
+    // Идентификаторы записей по нормализованному значению группы и города
+    private final Map<String, CompressedBitmap> groupIndex = new HashMap<>();
+    private final Map<String, CompressedBitmap> cityIndex = new HashMap<>();
+    private final SortedValueIndex ageIndex = new SortedValueIndex();
+    private final Map<Main.Student, Entry> entries = new IdentityHashMap<>();
+    // Записи по идентификатору, null на месте удаленных
+    private final ArrayList<Entry> byId = new ArrayList<>();
+    // Идентификаторы записей, которые есть в списке, для поиска позиции
+    private final LiveIdCounter liveIds = new LiveIdCounter();
+    // Счетчик изменений индекса, которым помечаются добавленные и измененные записи
+    private long modCount;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Строит индекс по списку и подписывается на его изменения
+     * @param students индексируемый список студентов
+     */
+    StudentSearchIndex(ObservableList<Main.Student> students) {
+        this.students = students;
+        rebuild();
+        students.addListener(this::onListChanged);
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Ищет студентов по подстроке фамилии и/или группы без учета регистра.
+     * Пустая строка означает отсутствие условия по полю.
+     * @param surname подстрока фамилии
+     * @param group подстрока группы
+     * @return найденные студенты в порядке следования в списке
+     */
+    List<Main.Student> search(String surname, String group) {
+        return search(new Criteria(surname, group));
+    }
+
+    /**
+     * Ищет студентов по условиям
+     * @return найденные студенты в порядке следования в списке
+     */
+    List<Main.Student> search(Criteria q) {
+        List<Main.Student> result = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            int[] ids = candidates(q);
+            if (ids == null) {
+                // Без условий, сужающих поиск, записи проверяются по сохраненным нормализованным значениям
+                for (Entry e : byId) {
+                    if (e != null && e.matches(q)) {
+                        result.add(e.student);
+                    }
+                }
+            } else {
+                for (int id : ids) {
+                    Entry e = byId.get(id);
+                    if (e.matches(q)) {
+                        result.add(e.student);
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Создает условие фильтра для FilteredList по подстроке фамилии и/или группы
+     * @see #filter(Criteria)
+     */
+    Predicate<Main.Student> filter(String surname, String group) {
+        return filter(new Criteria(surname, group));
+    }
+
+    /**
+     * Создает условие фильтра для FilteredList.
+     * Кандидаты вычисляются по индексам один раз, поэтому проверка строки
+     * сводится к поиску в таблице и проверке бита. Записи, добавленные или
+     * измененные после создания условия, проверяются по сохраненным значениям,
+     * так что условие остается верным при последующих правках списка.
+     * @param q условия поиска
+     * @return условие отбора студентов
+     */
+    Predicate<Main.Student> filter(Criteria q) {
+        BitSet candidateIds = null;
+        long createdAt;
+        lock.readLock().lock();
+        try {
+            int[] ids = candidates(q);
+            if (ids != null) {
+                candidateIds = new BitSet(byId.size());
+                for (int id : ids) {
+                    candidateIds.set(id);
+                }
+            }
+            createdAt = modCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+        BitSet finalIds = candidateIds;
+        return s -> {
+            Entry e = entries.get(s);
+            if (e == null) {
+                return false;
+            }
+            if (finalIds != null && e.stamp <= createdAt && !finalIds.get(e.id)) {
+                return false;
+            }
+            return e.matches(q);
+        };
+    }
+
+    /**
+     * Находит позицию студента в списке по ссылке без просмотра списка.
+     * Вызывается в потоке JavaFX.
+     * @return индекс студента в списке или -1, если его нет в списке
+     */
+    int positionOf(Main.Student s) {
+        Entry e = entries.get(s);
+        return e == null ? -1 : liveIds.countBelow(e.id);
+    }
+
+    /**
+     * Создает порядок найденных студентов для нечеткого поиска фамилии:
+     * по возрастанию расстояния ключа фамилии до запроса. Расстояние
+     * вычисляется один раз для каждого различного ключа. Порядок используется
+     * только в потоке JavaFX.
+     * @param q условия поиска
+     * @return сравнение студентов или null, если фамилия ищется не нечетко
+     */
+    Comparator<Main.Student> ranking(Criteria q) {
+        if (!q.fuzzySurname()) {
+            return null;
+        }
+        Map<String, Integer> distances = new HashMap<>();
+        return Comparator.comparingInt(s -> {
+            Entry e = entries.get(s);
+            String key = e != null ? e.surnameKey : Transliteration.fold(s.getSurname());
+            return distances.computeIfAbsent(key, k -> BkTree.distance(k, q.surname()));
+        });
+    }
+
+    /**
+     * @return отсортированные идентификаторы-кандидаты или null, если ни одно условие не сужает поиск
+     */
+    private int[] candidates(Criteria q) {
+        CompressedBitmap bits = null;
+        if (!q.group().isEmpty()) {
+            bits = union(groupIndex, q.group());
+        }
+        if (!q.city().isEmpty()) {
+            CompressedBitmap cities = union(cityIndex, q.city());
+            bits = bits == null ? cities : CompressedBitmap.and(bits, cities);
+        }
+        if (q.fuzzySurname()) {
+            CompressedBitmap near = new CompressedBitmap();
+            for (BkTree.Match m : surnameTree.search(q.surname(), q.surnameDistance())) {
+                near = CompressedBitmap.or(near, surnameKeyIndex.get(m.key()));
+            }
+            bits = bits == null ? near : CompressedBitmap.and(bits, near);
+        }
+        int[] ids = bits == null ? null : bits.toArray();
+        if (!q.fuzzy() && q.surname().length() >= TrigramIndex.GRAM) {
+            int[] surnameIds = surnameIndex.candidates(q.surname());
+            ids = ids == null ? surnameIds : intersect(ids, surnameIds);
+        }
+        if (q.hasAgeRange()) {
+            int[] ageIds = ageIndex.range(q.minAge(), q.maxAge());
+            ids = ids == null ? ageIds : intersect(ids, ageIds);
+        }
+        return ids;
+    }
+
+    /**
+     * Объединяет множества всех значений поля, содержащих подстроку
+     */
+    private static CompressedBitmap union(Map<String, CompressedBitmap> index, String part) {
+        CompressedBitmap result = new CompressedBitmap();
+        for (Map.Entry<String, CompressedBitmap> e : index.entrySet()) {
+            if (e.getKey().contains(part)) {
+                result = CompressedBitmap.or(result, e.getValue());
+            }
+        }
+        return result;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Обрабатывает изменения списка студентов.
+     * Добавления в конец и удаления обрабатываются по одной записи,
+     * вставки в середину и перестановки требуют перенумерации и полной перестройки.
+     */
+    private void onListChanged(ListChangeListener.Change<? extends Main.Student> c) {
+        lock.writeLock().lock();
+        try {
+            applyChange(c);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyChange(ListChangeListener.Change<? extends Main.Student> c) {
+        if (students.isEmpty()) {
+            clear();
+            return;
+        }
+        boolean needsRebuild = false;
+        while (c.next()) {
+            if (c.wasPermutated()) {
+                needsRebuild = true;
+                continue;
+            }
+            if (c.wasUpdated()) {
+                for (int i = c.getFrom(); i < c.getTo(); i++) {
+                    Entry e = entries.get(students.get(i));
+                    if (e != null) {
+                        e.refresh();
+                    }
+                }
+                continue;
+            }
+            for (Main.Student s : c.getRemoved()) {
+                remove(s);
+            }
+            if (c.wasAdded()) {
+                if (c.getTo() == students.size() && !needsRebuild) {
+                    for (Main.Student s : c.getAddedSubList()) {
+                        add(s);
+                    }
+                } else {
+                    needsRebuild = true;
+                }
+            }
+        }
+        // Слишком много пустых мест после удалений — перенумерация
+        if (needsRebuild || byId.size() > 2 * entries.size() + 1024) {
+            rebuild();
+        }
+        ageIndex.flush();
+    }
+
+    private void rebuild() {
+        clear();
+        for (Main.Student s : students) {
+            add(s);
+        }
+        ageIndex.flush();
+    }
+
+    private void clear() {
+        entries.clear();
+        byId.clear();
+        liveIds.clear();
+        surnameIndex.clear();
+        surnameTree.clear();
+        surnameKeyIndex.clear();
+        groupIndex.clear();
+        cityIndex.clear();
+        ageIndex.clear();
+    }
+
+    private void add(Main.Student s) {
+        Entry e = new Entry(byId.size(), s);
+        byId.add(e);
+        liveIds.add(e.id);
+        entries.put(s, e);
+        surnameIndex.add(e.id, e.surname);
+        e.surnameKey = surnameTree.add(Transliteration.fold(e.surname));
+        addValue(surnameKeyIndex, e.surnameKey, e.id);
+        addValue(groupIndex, e.group, e.id);
+        addValue(cityIndex, e.city, e.id);
+        ageIndex.add(e.id, e.age);
+    }
+
+    private void remove(Main.Student s) {
+        Entry e = entries.remove(s);
+        if (e != null) {
+            surnameIndex.remove(e.id, e.surname);
+            surnameTree.remove(e.surnameKey);
+            removeValue(surnameKeyIndex, e.surnameKey, e.id);
+            removeValue(groupIndex, e.group, e.id);
+            removeValue(cityIndex, e.city, e.id);
+            ageIndex.remove(e.id, e.age);
+            byId.set(e.id, null);
+            liveIds.remove(e.id);
+        }
+    }
+
+    private static void addValue(Map<String, CompressedBitmap> index, String value, int id) {
+        index.computeIfAbsent(value, k -> new CompressedBitmap()).add(id);
+    }
+
+    private static void removeValue(Map<String, CompressedBitmap> index, String value, int id) {
+        CompressedBitmap bits = index.get(value);
+        if (bits != null) {
+            bits.remove(id);
+            if (bits.isEmpty()) {
+                index.remove(value);
+            }
+        }
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] out = new int[Math.min(a.length, b.length)];
+        int n = 0, i = 0, j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) i++;
+            else if (a[i] > b[j]) j++;
+            else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Запись индекса: студент, его идентификатор и нормализованные значения полей
+     */
+    private class Entry {
+        final int id;
+        final Main.Student student;
+        String surname;
+        // Ключ фамилии для нечеткого поиска; экземпляр, хранящийся в дереве
+        String surnameKey;
+        String group;
+        String city;
+        int age;
+        long stamp;
+
+        Entry(int id, Main.Student student) {
+            this.id = id;
+            this.student = student;
+            this.surname = normalize(student.getSurname());
+            this.group = normalize(student.getGroup());
+            this.city = normalize(student.getCity());
+            this.age = student.getAge();
+            this.stamp = ++modCount;
+        }
+
+        /**
+         * Переиндексирует поля, если они изменились
+         */
+        void refresh() {
+            String newSurname = normalize(student.getSurname());
+            if (!newSurname.equals(surname)) {
+                surnameIndex.remove(id, surname);
+                surnameTree.remove(surnameKey);
+                removeValue(surnameKeyIndex, surnameKey, id);
+                surname = newSurname;
+                surnameIndex.add(id, surname);
+                surnameKey = surnameTree.add(Transliteration.fold(surname));
+                addValue(surnameKeyIndex, surnameKey, id);
+                stamp = ++modCount;
+            }
+            String newGroup = normalize(student.getGroup());
+            if (!newGroup.equals(group)) {
+                removeValue(groupIndex, group, id);
+                group = newGroup;
+                addValue(groupIndex, group, id);
+                stamp = ++modCount;
+            }
+            String newCity = normalize(student.getCity());
+            if (!newCity.equals(city)) {
+                removeValue(cityIndex, city, id);
+                city = newCity;
+                addValue(cityIndex, city, id);
+                stamp = ++modCount;
+            }
+            int newAge = student.getAge();
+            if (newAge != age) {
+                ageIndex.remove(id, age);
+                age = newAge;
+                ageIndex.add(id, age);
+                stamp = ++modCount;
+            }
+        }
+
+        boolean matches(Criteria q) {
+            return (q.surname().isEmpty()
+                        || (q.fuzzy() ? BkTree.within(surnameKey, q.surname(), q.surnameDistance())
+                            : surname.contains(q.surname())))
+                    && (q.group().isEmpty() || group.contains(q.group()))
+                    && (q.city().isEmpty() || city.contains(q.city()))
+                    && age >= q.minAge() && age <= q.maxAge();
+        }
+
+    }
+
+    private static String normalize(String value) {
+        return value == null ? "" : value.toLowerCase();
+    }
+}
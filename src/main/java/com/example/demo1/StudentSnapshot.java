@@ -0,0 +1,322 @@
+package com.example.demo1;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Двоичный снимок списка студентов для быстрого запуска.
+ * Хранится рядом с текстовым файлом ({@code students.txt.bin}) и содержит уже
+ * проверенные записи, поэтому при открытии не нужно разбирать строки и
+ * проверять поля — файл отображается в память и записи читаются напрямую.
+ *
+ * Формат (порядок байтов big-endian):
+ * <pre>
+ *   0  int   сигнатура 'STUB'
+ *   4  int   версия формата
+ *   8  long  размер текстового файла, из которого построен снимок
+ *  16  long  время изменения текстового файла, мс
+ *  24  long  CRC32 текстового файла (нужна журналу изменений)
+ *  32  int   число записей
+ *  36  int   число строк в словаре
+ *  40  int   число строк текстового файла с ошибками
+ *  44  int   резерв
+ *  48  long  CRC32 всех данных после заголовка
+ *  56  long  резерв
+ *  64  записи фиксированной длины: 5 × int (коды фамилии, имени, отчества,
+ *      города, группы в словаре) + short возраст
+ *  ... словарь строк: int длина + байты UTF-8
+ * </pre>
+ * Если снимок отсутствует, построен из другой версии текстового файла,
+ * имеет другую версию формата или не сходится по контрольной сумме,
+ * {@link #open} возвращает null и загрузка идет из текстового файла.
+ */
+final class StudentSnapshot {
+
+    static final int MAGIC = 0x53545542;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int ROW_SIZE = 5 * Integer.BYTES + Short.BYTES;
+
+    private final MappedByteBuffer data;
+    private final String[] dictionary;
+    private final int rowCount;
+    private final int errorCount;
+    private final long textSize;
+    private final long textCrc;
+
+    private StudentSnapshot(MappedByteBuffer data, String[] dictionary, int rowCount, int errorCount,
+                            long textSize, long textCrc) {
+        this.data = data;
+        this.dictionary = dictionary;
+        this.rowCount = rowCount;
+        this.errorCount = errorCount;
+        this.textSize = textSize;
+        this.textCrc = textCrc;
+    }
+
+    /**
+     * @return путь к двоичному снимку для указанного текстового файла
+     */
+    static Path snapshotPathFor(Path textPath) {
+        return textPath.resolveSibling(textPath.getFileName() + ".bin");
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Открывает снимок, если он соответствует текущему текстовому файлу.
+     * @param snapshotPath путь к двоичному снимку
+     * @param textPath путь к текстовому файлу
+     * @return открытый снимок или null, если снимок отсутствует, устарел или поврежден
+     */
+    static StudentSnapshot open(Path snapshotPath, Path textPath) throws IOException {
+        if (!Files.exists(snapshotPath) || !Files.exists(textPath)) {
+            return null;
+        }
+        return open(snapshotPath, Files.readAttributes(textPath, BasicFileAttributes.class));
+    }
+
+    /**
+     * Открывает снимок без сверки с текстовым файлом (для выгрузки в текст).
+     * Версия формата и контрольная сумма проверяются.
+     * @return открытый снимок или null, если снимок отсутствует или поврежден
+     */
+    static StudentSnapshot openUnchecked(Path snapshotPath) throws IOException {
+        return Files.exists(snapshotPath) ? open(snapshotPath, (BasicFileAttributes) null) : null;
+    }
+
+    private static StudentSnapshot open(Path snapshotPath, BasicFileAttributes text) throws IOException {
+        try (FileChannel channel = FileChannel.open(snapshotPath, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            data.order(ByteOrder.BIG_ENDIAN);
+            if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+                return null;
+            }
+            if (text != null && (data.getLong(8) != text.size()
+                    || data.getLong(16) != text.lastModifiedTime().toMillis())) {
+                return null;
+            }
+            int rowCount = data.getInt(32);
+            int dictCount = data.getInt(36);
+            long rowsEnd = HEADER_SIZE + (long) rowCount * ROW_SIZE;
+            if (rowCount < 0 || dictCount < 0 || rowsEnd > size) {
+                return null;
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(data.slice(HEADER_SIZE, (int) (size - HEADER_SIZE)));
+            if (crc.getValue() != data.getLong(48)) {
+                return null;
+            }
+
+            String[] dictionary = readDictionary(data, (int) rowsEnd, dictCount);
+            if (dictionary == null) {
+                return null;
+            }
+            return new StudentSnapshot(data, dictionary, rowCount, data.getInt(40),
+                    data.getLong(8), data.getLong(24));
+        }
+    }
+
+    private static String[] readDictionary(ByteBuffer data, int offset, int count) {
+        String[] dictionary = new String[count];
+        byte[] buf = new byte[256];
+        int pos = offset;
+        for (int i = 0; i < count; i++) {
+            if (pos + Integer.BYTES > data.limit()) {
+                return null;
+            }
+            int length = data.getInt(pos);
+            pos += Integer.BYTES;
+            if (length < 0 || pos + length > data.limit()) {
+                return null;
+            }
+            if (buf.length < length) {
+                buf = new byte[Math.max(length, buf.length * 2)];
+            }
+            data.get(pos, buf, 0, length);
+            dictionary[i] = new String(buf, 0, length, StandardCharsets.UTF_8);
+            pos += length;
+        }
+        return dictionary;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /** @return число записей в снимке */
+    int getRowCount() { return rowCount; }
+
+    /** @return число строк текстового файла, не попавших в снимок из-за ошибок */
+    int getErrorCount() { return errorCount; }
+
+    /** @return размер текстового файла, из которого построен снимок */
+    long getTextSize() { return textSize; }
+
+    /** @return CRC32 текстового файла, из которого построен снимок */
+    long getTextCrc() { return textCrc; }
+
+    /**
+     * Создает студента по записи снимка.
+     * Строки берутся из словаря, поэтому одинаковые значения разделяют один объект String.
+     * @param row номер записи
+     */
+    Main.Student student(int row) {
+        int pos = HEADER_SIZE + row * ROW_SIZE;
+        String surname = dictionary[data.getInt(pos)];
+        String name = dictionary[data.getInt(pos + 4)];
+        String patronymic = dictionary[data.getInt(pos + 8)];
+        String city = dictionary[data.getInt(pos + 12)];
+        String group = dictionary[data.getInt(pos + 16)];
+        int age = data.getShort(pos + 20);
+        return new Main.Student(name, surname, patronymic, age, city, group);
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Строит двоичный снимок из текстового файла (в том числе сжатого gzip).
+     * Строки с ошибками в снимок не попадают, учитывается только их количество.
+     * Снимок пишется во временный файл и подменяет прежний атомарным переименованием.
+     * Если текстовый файл изменился во время чтения, снимок не создается.
+     * @param textPath путь к текстовому файлу
+     * @param snapshotPath путь к двоичному снимку
+     * @return true, если снимок создан
+     */
+    static boolean importText(Path textPath, Path snapshotPath) throws IOException {
+        BasicFileAttributes before = Files.readAttributes(textPath, BasicFileAttributes.class);
+        Path tmpPath = snapshotPath.resolveSibling(snapshotPath.getFileName() + ".tmp");
+
+        Map<String, Integer> codes = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        CRC32 bodyCrc = new CRC32();
+        CRC32 textCrc = new CRC32();
+        int rowCount = 0;
+        int errorCount = 0;
+        boolean unchanged;
+
+        try (FileChannel out = FileChannel.open(tmpPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+             CheckedInputStream checked = new CheckedInputStream(Files.newInputStream(textPath), textCrc);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(
+                     StudentFileFormat.decode(checked), StandardCharsets.UTF_8), 1 << 16)) {
+            ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+            out.position(HEADER_SIZE);
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(";");
+                if (parts.length != 6 || StudentValidator.validate(
+                        parts[1], parts[0], parts[2], parts[3], parts[4], parts[5]) != null) {
+                    errorCount++;
+                    continue;
+                }
+                if (buf.remaining() < ROW_SIZE) {
+                    flush(out, buf, bodyCrc);
+                }
+                buf.putInt(code(parts[0], codes, dictionary));
+                buf.putInt(code(parts[1], codes, dictionary));
+                buf.putInt(code(parts[2], codes, dictionary));
+                buf.putInt(code(parts[4], codes, dictionary));
+                buf.putInt(code(parts[5], codes, dictionary));
+                buf.putShort((short) StudentValidator.parseAge(parts[3]));
+                rowCount++;
+            }
+            for (String value : dictionary) {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                if (buf.remaining() < Integer.BYTES + bytes.length) {
+                    flush(out, buf, bodyCrc);
+                }
+                if (buf.remaining() < Integer.BYTES + bytes.length) {
+                    buf = ByteBuffer.allocate(Integer.BYTES + bytes.length);
+                }
+                buf.putInt(bytes.length).put(bytes);
+            }
+            flush(out, buf, bodyCrc);
+            checked.transferTo(OutputStream.nullOutputStream());
+
+            BasicFileAttributes after = Files.readAttributes(textPath, BasicFileAttributes.class);
+            unchanged = after.size() == before.size() && after.lastModifiedTime().equals(before.lastModifiedTime());
+            if (unchanged) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                header.putInt(MAGIC).putInt(VERSION)
+                        .putLong(before.size()).putLong(before.lastModifiedTime().toMillis()).putLong(textCrc.getValue())
+                        .putInt(rowCount).putInt(dictionary.size()).putInt(errorCount).putInt(0)
+                        .putLong(bodyCrc.getValue()).putLong(0);
+                header.flip();
+                out.write(header, 0);
+                out.force(true);
+            }
+        }
+        if (!unchanged) {
+            // Временный файл удаляется после закрытия канала
+            Files.deleteIfExists(tmpPath);
+            return false;
+        }
+        Files.move(tmpPath, snapshotPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+
+    /**
+     * Выгружает снимок в текстовый формат Фамилия;Имя;Отчество;Возраст;Город;Группа
+     * @param snapshot открытый снимок
+     * @param textPath путь к создаваемому текстовому файлу
+     */
+    static void exportText(StudentSnapshot snapshot, Path textPath) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(textPath, StandardCharsets.UTF_8)) {
+            for (int i = 0; i < snapshot.getRowCount(); i++) {
+                writer.write(StudentJournal.format(snapshot.student(i)));
+                writer.newLine();
+            }
+        }
+    }
+
+    private static int code(String value, Map<String, Integer> codes, List<String> dictionary) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = dictionary.size();
+            codes.put(value, code);
+            dictionary.add(value);
+        }
+        return code;
+    }
+
+    private static void flush(FileChannel out, ByteBuffer buf, CRC32 crc) throws IOException {
+        buf.flip();
+        crc.update(buf.array(), 0, buf.limit());
+        while (buf.hasRemaining()) {
+            out.write(buf);
+        }
+        buf.clear();
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Преобразование форматов из командной строки:
+     * {@code import <students.txt> [снимок]} строит снимок из текстового файла,
+     * {@code export <снимок> <файл.txt>} выгружает снимок в текст.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 2 && args[0].equals("import")) {
+            Path text = Paths.get(args[1]);
+            Path snapshot = args.length > 2 ? Paths.get(args[2]) : snapshotPathFor(text);
+            System.out.println(importText(text, snapshot) ? "Снимок создан: " + snapshot : "Файл изменился во время чтения");
+        } else if (args.length == 3 && args[0].equals("export")) {
+            Path snapshot = Paths.get(args[1]);
+            StudentSnapshot opened = openUnchecked(snapshot);
+            if (opened == null) {
+                System.out.println("Снимок отсутствует или поврежден: " + snapshot);
+                return;
+            }
+            exportText(opened, Paths.get(args[2]));
+            System.out.println("Выгружено записей: " + opened.getRowCount());
+        } else {
+            System.out.println("Использование: import <students.txt> [снимок] | export <снимок> <файл.txt>");
+        }
+    }
+}
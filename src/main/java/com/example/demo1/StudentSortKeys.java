@@ -0,0 +1,178 @@
+package com.example.demo1;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.text.Collator;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Сортировка студентов с учетом правил языка (ё рядом с е, регистр не
+ * разбрасывает фамилии по разным концам таблицы) без вызова {@link Collator}
+ * на каждое сравнение.
+ *
+ * Для каждого студента один раз вычисляются ключи сортировки
+ * ({@link java.text.CollationKey#toByteArray}) нужных полей; ключи хранятся
+ * в самом студенте и сравниваются как беззнаковые байтовые массивы.
+ * Ключи вычисляются лениво и сбрасываются при правке студента, их сбрасывает
+ * ListChangeListener, поэтому объект должен подписаться на список раньше
+ * представлений (FilteredList/SortedList). На один список — один объект.
+ *
+ * {@link #comparator} вычисляет недостающие ключи и упорядочивает весь список
+ * параллельной сортировкой, после чего назначает каждому студенту ранг.
+ * Возвращаемый компаратор сравнивает ранги как числа, а для студентов,
+ * добавленных или измененных после сортировки, — ключи; порядок рангов
+ * совпадает с порядком ключей, поэтому такое сравнение согласовано.
+ *
+ * Изменяется и используется в потоке-владельце списка (потоке JavaFX).
+ */
+final class StudentSortKeys {
+
+    /**
+     * Поле сортировки
+     */
+    enum Field { SURNAME, NAME, PATRONYMIC, AGE, CITY, GROUP }
+
+    /**
+     * Поле и направление одного уровня многоуровневой сортировки
+     */
+    record Order(Field field, boolean ascending) {
+    }
+
+    // Образец для копий: Collator не потокобезопасен, каждому потоку нужна своя копия
+    private final Collator prototype;
+    private final Collator collator;
+    private final ThreadLocal<Collator> workerCollators;
+    private final ObservableList<Main.Student> students;
+    // Номер последней сортировки; ранги прошлых сортировок недействительны
+    private int generation;
+
+    /**
+     * @param students список студентов
+     * @param locale язык, правила которого определяют порядок
+     */
+    StudentSortKeys(ObservableList<Main.Student> students, Locale locale) {
+        this.students = students;
+        this.prototype = Collator.getInstance(locale);
+        this.collator = (Collator) prototype.clone();
+        this.workerCollators = ThreadLocal.withInitial(() -> (Collator) prototype.clone());
+        students.addListener(this::onListChanged);
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    private void onListChanged(ListChangeListener.Change<? extends Main.Student> c) {
+        while (c.next()) {
+            if (c.wasUpdated()) {
+                for (int i = c.getFrom(); i < c.getTo(); i++) {
+                    Keys k = c.getList().get(i).sortKeys;
+                    if (k != null) {
+                        k.invalidate();
+                    }
+                }
+            }
+        }
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Упорядочивает список по ключам и возвращает компаратор для SortedList
+     * @param orders уровни сортировки, от главного к второстепенному
+     * @return компаратор студентов
+     */
+    Comparator<Main.Student> comparator(List<Order> orders) {
+        Order[] levels = orders.toArray(new Order[0]);
+        Comparator<Keys> byKeys = (a, b) -> compareKeys(a, b, levels);
+        int current = ++generation;
+
+        Keys[] sorted = new Keys[students.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = keys(students.get(i));
+        }
+        // Ключи вычисляются до сортировки, чтобы при сравнении только читать их
+        Arrays.stream(sorted).parallel().forEach(k -> k.prepare(levels, workerCollators.get()));
+        Arrays.parallelSort(sorted, byKeys);
+        int rank = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i > 0 && byKeys.compare(sorted[i - 1], sorted[i]) != 0) {
+                rank++;
+            }
+            sorted[i].rank = rank;
+            sorted[i].generation = current;
+        }
+
+        return (a, b) -> {
+            Keys ka = keys(a);
+            Keys kb = keys(b);
+            if (ka.generation == current && kb.generation == current) {
+                return Integer.compare(ka.rank, kb.rank);
+            }
+            ka.prepare(levels, collator);
+            kb.prepare(levels, collator);
+            return byKeys.compare(ka, kb);
+        };
+    }
+
+    private static Keys keys(Main.Student s) {
+        Keys k = s.sortKeys;
+        if (k == null) {
+            k = new Keys(s);
+            s.sortKeys = k;
+        }
+        return k;
+    }
+
+    private static int compareKeys(Keys a, Keys b, Order[] levels) {
+        for (Order level : levels) {
+            int field = level.field().ordinal();
+            int result = level.field() == Field.AGE
+                    ? Integer.compare(a.student.getAge(), b.student.getAge())
+                    : Arrays.compareUnsigned(a.text[field], b.text[field]);
+            if (result != 0) {
+                return level.ascending() ? result : -result;
+            }
+        }
+        return 0;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Ключи сортировки текстовых полей студента и его ранг в последней сортировке
+     */
+    static final class Keys {
+        final Main.Student student;
+        // Ключи по номеру поля, null — еще не вычислен
+        final byte[][] text = new byte[Field.values().length][];
+        int rank;
+        int generation;
+
+        Keys(Main.Student student) {
+            this.student = student;
+        }
+
+        void prepare(Order[] levels, Collator collator) {
+            for (Order level : levels) {
+                int field = level.field().ordinal();
+                if (level.field() != Field.AGE && text[field] == null) {
+                    text[field] = collator.getCollationKey(value(level.field())).toByteArray();
+                }
+            }
+        }
+
+        void invalidate() {
+            Arrays.fill(text, null);
+            generation = 0;
+        }
+
+        private String value(Field field) {
+            String value = switch (field) {
+                case SURNAME -> student.getSurname();
+                case NAME -> student.getName();
+                case PATRONYMIC -> student.getPatronymic();
+                case CITY -> student.getCity();
+                case GROUP -> student.getGroup();
+                case AGE -> throw new IllegalArgumentException("Возраст сравнивается как число");
+            };
+            return value == null ? "" : value;
+        }
+    }
+}
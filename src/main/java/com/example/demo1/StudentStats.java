@@ -0,0 +1,203 @@
+package com.example.demo1;
+
+import javafx.collections.ListChangeListener;
+import javafx.collections.ObservableList;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сводная статистика списка студентов: количество по группам и городам
+ * и распределение возраста.
+ *
+ * Статистика не пересчитывается перебором списка: она обновляется сама через
+ * ListChangeListener, на каждое добавление, удаление или правку студента —
+ * за O(1) (правки полей приходят как обновления списка, созданного с extractor).
+ * Для каждого студента хранятся коды его группы и города и возраст на момент
+ * последнего учета, чтобы при правке и удалении вычесть прежние значения.
+ * Счетчики — массивы int по кодам из собственных словарей, возраст — гистограмма
+ * по годам, поэтому перцентили вычисляются проходом по гистограмме.
+ *
+ * Изменяется и читается в потоке-владельце списка (потоке JavaFX).
+ */
+final class StudentStats {
+
+    /**
+     * Количество студентов с данным значением поля
+     */
+    record Count(String value, int count) {
+    }
+
+    private final StringDictionary groups = new StringDictionary();
+    private final StringDictionary cities = new StringDictionary();
+    private final Map<Main.Student, Entry> entries = new IdentityHashMap<>();
+    private int[] groupCounts = new int[64];
+    private int[] cityCounts = new int[64];
+    // Гистограмма возраста по годам; значения вне 0..MAX_AGE учитываются в крайних ячейках
+    private final int[] ageCounts = new int[StudentValidator.MAX_AGE + 1];
+    private int total;
+    private long ageSum;
+    // Счетчик изменений статистики, по нему представление понимает, что пора обновиться
+    private long modCount;
+
+    /**
+     * Учитывает текущее содержимое списка и подписывается на его изменения
+     * @param students список студентов
+     */
+    StudentStats(ObservableList<Main.Student> students) {
+        for (Main.Student s : students) {
+            add(s);
+        }
+        students.addListener(this::onListChanged);
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    private void onListChanged(ListChangeListener.Change<? extends Main.Student> c) {
+        if (c.getList().isEmpty()) {
+            clear();
+            return;
+        }
+        while (c.next()) {
+            // Перестановка не меняет количеств
+            if (c.wasPermutated()) {
+                continue;
+            }
+            if (c.wasUpdated()) {
+                for (int i = c.getFrom(); i < c.getTo(); i++) {
+                    Entry e = entries.get(c.getList().get(i));
+                    if (e != null) {
+                        count(e, -1);
+                        e.capture();
+                        count(e, 1);
+                    }
+                }
+                continue;
+            }
+            for (Main.Student s : c.getRemoved()) {
+                Entry e = entries.remove(s);
+                if (e != null) {
+                    count(e, -1);
+                }
+            }
+            if (c.wasAdded()) {
+                for (Main.Student s : c.getAddedSubList()) {
+                    add(s);
+                }
+            }
+        }
+        modCount++;
+    }
+
+    private void add(Main.Student s) {
+        if (!entries.containsKey(s)) {
+            Entry e = new Entry(s);
+            entries.put(s, e);
+            count(e, 1);
+        }
+    }
+
+    private void clear() {
+        entries.clear();
+        Arrays.fill(groupCounts, 0);
+        Arrays.fill(cityCounts, 0);
+        Arrays.fill(ageCounts, 0);
+        total = 0;
+        ageSum = 0;
+        modCount++;
+    }
+
+    private void count(Entry e, int delta) {
+        if (e.group >= groupCounts.length) {
+            groupCounts = Arrays.copyOf(groupCounts, Math.max(e.group + 1, groupCounts.length * 2));
+        }
+        if (e.city >= cityCounts.length) {
+            cityCounts = Arrays.copyOf(cityCounts, Math.max(e.city + 1, cityCounts.length * 2));
+        }
+        groupCounts[e.group] += delta;
+        cityCounts[e.city] += delta;
+        ageCounts[Math.max(0, Math.min(e.age, ageCounts.length - 1))] += delta;
+        ageSum += (long) e.age * delta;
+        total += delta;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /** @return количество студентов */
+    int total() {
+        return total;
+    }
+
+    /** @return номер изменения статистики, растет при каждом изменении списка */
+    long modCount() {
+        return modCount;
+    }
+
+    /** @return количество студентов по группам, без пустых, по убыванию количества */
+    List<Count> byGroup() {
+        return counts(groups, groupCounts);
+    }
+
+    /** @return количество студентов по городам, без пустых, по убыванию количества */
+    List<Count> byCity() {
+        return counts(cities, cityCounts);
+    }
+
+    private static List<Count> counts(StringDictionary dictionary, int[] counts) {
+        List<Count> result = new ArrayList<>();
+        for (int code = 0; code < counts.length; code++) {
+            if (counts[code] > 0) {
+                result.add(new Count(dictionary.get(code), counts[code]));
+            }
+        }
+        result.sort((a, b) -> a.count() != b.count()
+                ? Integer.compare(b.count(), a.count())
+                : a.value().compareTo(b.value()));
+        return result;
+    }
+
+    /** @return средний возраст или 0 для пустого списка */
+    double averageAge() {
+        return total == 0 ? 0 : (double) ageSum / total;
+    }
+
+    /**
+     * Перцентиль возраста по гистограмме
+     * @param p доля от 0 до 1, например 0.5 для медианы
+     * @return наименьший возраст, которого не превышает возраст доли p студентов, или 0 для пустого списка
+     */
+    int agePercentile(double p) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(p * total));
+        long seen = 0;
+        for (int age = 0; age < ageCounts.length; age++) {
+            seen += ageCounts[age];
+            if (seen >= rank) {
+                return age;
+            }
+        }
+        return ageCounts.length - 1;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Учтенные значения полей студента
+     */
+    private final class Entry {
+        final Main.Student student;
+        int group;
+        int city;
+        int age;
+
+        Entry(Main.Student student) {
+            this.student = student;
+            capture();
+        }
+
+        void capture() {
+            group = groups.intern(student.getGroup());
+            city = cities.intern(student.getCity());
+            age = student.getAge();
+        }
+    }
+}
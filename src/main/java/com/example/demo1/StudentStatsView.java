@@ -0,0 +1,94 @@
+package com.example.demo1;
+
+import javafx.animation.Animation;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.ReadOnlyObjectWrapper;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.scene.Scene;
+import javafx.scene.control.Label;
+import javafx.scene.control.TableColumn;
+import javafx.scene.control.TableView;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.scene.layout.VBox;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.util.Duration;
+
+/**
+ * Окно статистики: количество студентов по группам и городам и перцентили возраста.
+ * Данные берутся из {@link StudentStats}, которая обновляется вместе со списком;
+ * окно перечитывает ее раз в секунду, только если статистика изменилась,
+ * и никогда не перебирает список студентов.
+ */
+final class StudentStatsView {
+
+    private static final Duration REFRESH = Duration.seconds(1);
+
+    private final StudentStats stats;
+    private final Stage stage = new Stage();
+    private final ObservableList<StudentStats.Count> groupRows = FXCollections.observableArrayList();
+    private final ObservableList<StudentStats.Count> cityRows = FXCollections.observableArrayList();
+    private final Label lblAge = new Label();
+    private final Timeline refresh = new Timeline(new KeyFrame(REFRESH, e -> refreshIfChanged()));
+    // Номер изменения статистики, показанного в окне
+    private long shownModCount = -1;
+
+    /**
+     * @param stats статистика списка студентов
+     * @param owner главное окно приложения
+     */
+    StudentStatsView(StudentStats stats, Window owner) {
+        this.stats = stats;
+        HBox tables = new HBox(10, table("Группа", groupRows), table("Город", cityRows));
+        VBox root = new VBox(10, lblAge, tables);
+        root.setPadding(new Insets(10));
+        VBox.setVgrow(tables, Priority.ALWAYS);
+
+        refresh.setCycleCount(Animation.INDEFINITE);
+        stage.initOwner(owner);
+        stage.setTitle("Статистика");
+        stage.setScene(new Scene(root, 520, 420));
+        stage.setOnShown(e -> refresh.play());
+        stage.setOnHidden(e -> refresh.stop());
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Показывает окно с текущей статистикой
+     */
+    void show() {
+        refreshIfChanged();
+        stage.show();
+        stage.toFront();
+    }
+
+    private void refreshIfChanged() {
+        if (stats.modCount() == shownModCount) {
+            return;
+        }
+        shownModCount = stats.modCount();
+        groupRows.setAll(stats.byGroup());
+        cityRows.setAll(stats.byCity());
+        lblAge.setText(String.format("Студентов: %d, средний возраст: %.1f%nВозраст: p50 %d, p90 %d, p99 %d",
+                stats.total(), stats.averageAge(),
+                stats.agePercentile(0.5), stats.agePercentile(0.9), stats.agePercentile(0.99)));
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    private static TableView<StudentStats.Count> table(String title, ObservableList<StudentStats.Count> rows) {
+        TableColumn<StudentStats.Count, String> colValue = new TableColumn<>(title);
+        colValue.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().value()));
+        colValue.setPrefWidth(150);
+        TableColumn<StudentStats.Count, Integer> colCount = new TableColumn<>("Студентов");
+        colCount.setCellValueFactory(c -> new ReadOnlyObjectWrapper<>(c.getValue().count()));
+        colCount.setPrefWidth(90);
+
+        TableView<StudentStats.Count> table = new TableView<>(rows);
+        table.getColumns().add(colValue);
+        table.getColumns().add(colCount);
+        HBox.setHgrow(table, Priority.ALWAYS);
+        return table;
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.demo1;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Запись в список студентов из многих потоков одновременно: обработчики
+ * интерфейса, импорт, внешние API.
+ *
+ * Каждый студент имеет номер версии. Правка и удаление принимаются, только
+ * если писатель видел текущую версию студента (оптимистичная блокировка),
+ * иначе возвращается {@link Result#CONFLICT}: студента успел изменить другой
+ * писатель. Проверка версии и постановка изменения в очередь выполняются
+ * под блокировкой полосы — одной из {@link #STRIPES} блокировок, выбранной по
+ * студенту, поэтому писатели разных студентов почти не мешают друг другу,
+ * а изменения одного студента попадают в очередь в порядке версий.
+ *
+ * Принятые изменения копятся в неблокирующей очереди и применяются к списку
+ * пачками в потоке-владельце списка ({@code publisher}, для таблицы —
+ * Platform::runLater), см. {@link StudentRepository#applyChanges}. Одна
+ * публикация ограничена по времени, остаток переносится на следующую,
+ * поэтому поток писателей не блокирует интерфейс. Пока загрузка файла
+ * не завершена, изменения ждут в очереди до вызова {@link #resume}.
+ */
+final class StudentStore {
+
+    /**
+     * Итог попытки изменения
+     */
+    enum Result {
+        /** Изменение принято и будет применено к списку */
+        ACCEPTED,
+        /** Версия студента изменилась после того, как писатель ее прочитал */
+        CONFLICT,
+        /** Студент удален */
+        DELETED
+    }
+
+    // Версия удаленного студента
+    static final int DELETED_VERSION = -1;
+    // Количество полос блокировок, степень двойки
+    static final int STRIPES = 64;
+    // Наибольшее количество изменений, применяемых одной блокировкой записи
+    static final int CHUNK_SIZE = 1_000;
+    // Размер первой пачки, пока время применения одного изменения не измерено
+    private static final int FIRST_CHUNK_SIZE = 16;
+    // Время одной публикации в потоке-владельце списка
+    private static final long PUBLISH_BUDGET_NANOS = 8_000_000;
+
+    // Полосы общие для всех хранилищ: версия принадлежит самому студенту
+    private static final Object[] LOCKS = new Object[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            LOCKS[i] = new Object();
+        }
+    }
+
+    private final StudentRepository repository;
+    private final Executor publisher;
+    private final Consumer<String> errorHandler;
+    private final ConcurrentLinkedQueue<StudentRepository.Change> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean publishScheduled = new AtomicBoolean();
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    // Сглаженное время применения одного изменения, 0 — еще не измерено (поток-владелец списка)
+    private double nanosPerChange;
+
+    /**
+     * @param repository хранилище, к списку которого применяются изменения
+     * @param publisher исполнитель в потоке-владельце списка
+     * @param errorHandler получатель сообщений об ошибках применения, вызывается в потоке-владельце
+     */
+    StudentStore(StudentRepository repository, Executor publisher, Consumer<String> errorHandler) {
+        this.repository = repository;
+        this.publisher = publisher;
+        this.errorHandler = errorHandler;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * @return текущая версия студента для последующей правки или удаления;
+     *         {@link #DELETED_VERSION}, если студент удален
+     */
+    static int version(Main.Student s) {
+        synchronized (lockFor(s)) {
+            return s.version;
+        }
+    }
+
+    /**
+     * Отмечает изменение студента в обход хранилища (синхронизация с файлом),
+     * чтобы правки, начатые до него, получили {@link Result#CONFLICT}
+     */
+    static void touch(Main.Student s) {
+        synchronized (lockFor(s)) {
+            if (s.version != DELETED_VERSION) {
+                s.version++;
+            }
+        }
+    }
+
+    /**
+     * Отмечает удаление студента в обход хранилища (синхронизация с файлом,
+     * откат импорта), чтобы правки и удаление, начатые до него, сразу
+     * получили {@link Result#DELETED}
+     */
+    static void markDeleted(Main.Student s) {
+        synchronized (lockFor(s)) {
+            s.version = DELETED_VERSION;
+        }
+    }
+
+    private static Object lockFor(Main.Student s) {
+        // Перемешивание битов: младшие биты хеша идентичности распределены неравномерно
+        int h = System.identityHashCode(s);
+        return LOCKS[(h ^ (h >>> 16)) & (STRIPES - 1)];
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Добавляет нового студента в конец списка
+     */
+    Result add(Main.Student s) {
+        submit(new StudentRepository.Change(StudentRepository.Change.Kind.ADD, s, null));
+        return Result.ACCEPTED;
+    }
+
+    /**
+     * Переносит значения полей в студента, если его версия не изменилась
+     * @param target студент из списка
+     * @param expectedVersion версия, прочитанная {@link #version} до начала правки
+     * @param values новые значения полей; не должны изменяться после вызова
+     */
+    Result update(Main.Student target, int expectedVersion, Main.Student values) {
+        synchronized (lockFor(target)) {
+            Result result = check(target, expectedVersion);
+            if (result == Result.ACCEPTED) {
+                target.version++;
+                submit(new StudentRepository.Change(StudentRepository.Change.Kind.UPDATE, target, values));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Удаляет студента, если его версия не изменилась
+     * @param target студент из списка
+     * @param expectedVersion версия, прочитанная {@link #version} до решения об удалении
+     */
+    Result delete(Main.Student target, int expectedVersion) {
+        synchronized (lockFor(target)) {
+            Result result = check(target, expectedVersion);
+            if (result == Result.ACCEPTED) {
+                target.version = DELETED_VERSION;
+                submit(new StudentRepository.Change(StudentRepository.Change.Kind.DELETE, target, null));
+            }
+            return result;
+        }
+    }
+
+    private Result check(Main.Student target, int expectedVersion) {
+        if (target.version == DELETED_VERSION) {
+            return Result.DELETED;
+        }
+        if (target.version != expectedVersion) {
+            conflicts.increment();
+            return Result.CONFLICT;
+        }
+        return Result.ACCEPTED;
+    }
+
+    private void submit(StudentRepository.Change change) {
+        pending.add(change);
+        accepted.increment();
+        schedulePublish();
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Возобновляет публикацию изменений, накопленных во время загрузки файла
+     */
+    void resume() {
+        if (!pending.isEmpty()) {
+            schedulePublish();
+        }
+    }
+
+    /** @return количество изменений, ожидающих публикации */
+    int pendingCount() {
+        return pending.size();
+    }
+
+    /** @return количество принятых изменений */
+    long acceptedCount() {
+        return accepted.sum();
+    }
+
+    /** @return количество отклоненных из-за конфликта версий изменений */
+    long conflictCount() {
+        return conflicts.sum();
+    }
+
+    private void schedulePublish() {
+        if (publishScheduled.compareAndSet(false, true)) {
+            publisher.execute(this::publish);
+        }
+    }
+
+    /**
+     * Применяет накопленные изменения пачками, пока не истечет время публикации.
+     * Размер пачки подбирается по измеренному времени применения изменения так,
+     * чтобы пачка укладывалась в оставшееся время: на большом списке одно изменение
+     * (удаление из середины) стоит дороже. После пачек в режиме перезаписи
+     * запускается одно фоновое сохранение файла.
+     */
+    private void publish() {
+        // Сбрасывается до чтения очереди: изменение, принятое во время публикации, запланирует следующую
+        publishScheduled.set(false);
+        if (!repository.isReady()) {
+            return;
+        }
+        long deadline = System.nanoTime() + PUBLISH_BUDGET_NANOS;
+        List<StudentRepository.Change> chunk = new ArrayList<>(CHUNK_SIZE);
+        long now;
+        do {
+            chunk.clear();
+            int size = chunkSize(deadline - System.nanoTime());
+            StudentRepository.Change change;
+            while (chunk.size() < size && (change = pending.poll()) != null) {
+                chunk.add(change);
+            }
+            if (chunk.isEmpty()) {
+                break;
+            }
+            long start = System.nanoTime();
+            int missing = repository.applyChanges(chunk);
+            now = System.nanoTime();
+            double measured = (double) (now - start) / chunk.size();
+            nanosPerChange = nanosPerChange == 0 ? measured : 0.75 * nanosPerChange + 0.25 * measured;
+            if (missing > 0) {
+                errorHandler.accept("Изменения не применены, студентов уже нет в списке: " + missing);
+            }
+        } while (now < deadline);
+        repository.saveChanges();
+        if (!pending.isEmpty()) {
+            schedulePublish();
+        }
+    }
+
+    /**
+     * @param remainingNanos оставшееся время публикации
+     * @return количество изменений, которое успеет примениться за оставшееся время
+     */
+    private int chunkSize(long remainingNanos) {
+        if (nanosPerChange == 0) {
+            return FIRST_CHUNK_SIZE;
+        }
+        return (int) Math.max(1, Math.min(CHUNK_SIZE, remainingNanos / nanosPerChange));
+    }
+}
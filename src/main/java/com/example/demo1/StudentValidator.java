@@ -0,0 +1,245 @@
+package com.example.demo1;
+
+/**
+ * Проверка полей студента без регулярных выражений.
+ * Допустимые символы проверяются простым перебором строки, поэтому проверка
+ * не создает объектов и не компилирует шаблоны. Результат проверки — константа
+ * {@link Violation} или null, если данные корректны; исключения не используются.
+ *
+ * Правила совпадают с прежними шаблонами:
+ * имя, фамилия, отчество и город — {@code [а-яА-ЯёЁa-zA-Z\s-]},
+ * группа — {@code [а-яА-ЯёЁa-zA-Z0-9-]}, возраст — целое число от 1 до 120.
+ */
+final class StudentValidator {
+
+    // Значение parseAge для строки, не являющейся числом
+    static final int NOT_A_NUMBER = Integer.MIN_VALUE;
+
+    static final int MIN_AGE = 1;
+    static final int MAX_AGE = 120;
+
+    private StudentValidator() {
+    }
+
+    /**
+     * Проверяемые поля студента с подсказкой о допустимых символах
+     */
+    enum Field {
+        NAME("Имя может содержать только буквы, пробелы и дефис"),
+        SURNAME("Фамилия может содержать только буквы, пробелы и дефис"),
+        PATRONYMIC("Отчество может содержать только буквы, пробелы и дефис"),
+        AGE("Возраст может содержать только цифры"),
+        CITY("Город может содержать только буквы, пробелы и дефис"),
+        GROUP("Группа может содержать только буквы, цифры и дефис");
+
+        private final String hint;
+
+        Field(String hint) {
+            this.hint = hint;
+        }
+
+        /** @return подсказка о допустимых символах для поля ввода */
+        String hint() {
+            return hint;
+        }
+
+        /**
+         * Проверяет, что строка состоит только из допустимых для поля символов.
+         * Пустая строка допустима, это позволяет проверять поле во время ввода.
+         */
+        boolean allows(CharSequence value) {
+            return switch (this) {
+                case AGE -> isDigits(value);
+                case GROUP -> isGroupText(value);
+                default -> isNameText(value);
+            };
+        }
+    }
+
+    /**
+     * Нарушения правил проверки
+     */
+    enum Violation {
+        NAME_EMPTY(Field.NAME, "Имя не может быть пустым"),
+        NAME_INVALID(Field.NAME, "Имя содержит недопустимые символы"),
+        SURNAME_EMPTY(Field.SURNAME, "Фамилия не может быть пустой"),
+        SURNAME_INVALID(Field.SURNAME, "Фамилия содержит недопустимые символы"),
+        PATRONYMIC_EMPTY(Field.PATRONYMIC, "Отчество не может быть пустым"),
+        PATRONYMIC_INVALID(Field.PATRONYMIC, "Отчество содержит недопустимые символы"),
+        AGE_NOT_A_NUMBER(Field.AGE, "Возраст должен быть числом"),
+        AGE_OUT_OF_RANGE(Field.AGE, "Возраст должен быть от 1 до 120"),
+        CITY_EMPTY(Field.CITY, "Город не может быть пустым"),
+        CITY_INVALID(Field.CITY, "Город содержит недопустимые символы"),
+        GROUP_EMPTY(Field.GROUP, "Группа не может быть пустой"),
+        GROUP_INVALID(Field.GROUP, "Группа содержит недопустимые символы");
+
+        private final Field field;
+        private final String message;
+
+        Violation(Field field, String message) {
+            this.field = field;
+            this.message = message;
+        }
+
+        /** @return поле, в котором найдено нарушение */
+        Field field() {
+            return field;
+        }
+
+        /** @return текст ошибки для пользователя */
+        String message() {
+            return message;
+        }
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Проверяет все поля студента в порядке: имя, фамилия, отчество, возраст, город, группа.
+     * @return первое найденное нарушение или null, если данные корректны
+     */
+    static Violation validate(CharSequence name, CharSequence surname, CharSequence patronymic,
+                              CharSequence age, CharSequence city, CharSequence group) {
+        return validate(name, surname, patronymic, parseAge(age), city, group);
+    }
+
+    /**
+     * Проверяет все поля студента при уже разобранном возрасте.
+     * @param age возраст, полученный из {@link #parseAge}, или {@link #NOT_A_NUMBER}
+     * @return первое найденное нарушение или null, если данные корректны
+     */
+    static Violation validate(CharSequence name, CharSequence surname, CharSequence patronymic,
+                              int age, CharSequence city, CharSequence group) {
+        Violation v;
+        if ((v = checkText(name, Field.NAME, Violation.NAME_EMPTY, Violation.NAME_INVALID)) != null) return v;
+        if ((v = checkText(surname, Field.SURNAME, Violation.SURNAME_EMPTY, Violation.SURNAME_INVALID)) != null) return v;
+        if ((v = checkText(patronymic, Field.PATRONYMIC, Violation.PATRONYMIC_EMPTY, Violation.PATRONYMIC_INVALID)) != null) return v;
+        if ((v = checkAge(age)) != null) return v;
+        if ((v = checkText(city, Field.CITY, Violation.CITY_EMPTY, Violation.CITY_INVALID)) != null) return v;
+        return checkText(group, Field.GROUP, Violation.GROUP_EMPTY, Violation.GROUP_INVALID);
+    }
+
+    /**
+     * Проверяет разобранный возраст
+     * @param age возраст или {@link #NOT_A_NUMBER}
+     * @return нарушение или null, если возраст корректен
+     */
+    static Violation checkAge(int age) {
+        if (age == NOT_A_NUMBER) {
+            return Violation.AGE_NOT_A_NUMBER;
+        }
+        if (age < MIN_AGE || age > MAX_AGE) {
+            return Violation.AGE_OUT_OF_RANGE;
+        }
+        return null;
+    }
+
+    private static Violation checkText(CharSequence value, Field field, Violation empty, Violation invalid) {
+        if (isBlank(value)) {
+            return empty;
+        }
+        if (!field.allows(value)) {
+            return invalid;
+        }
+        return null;
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Разбирает возраст по правилам Integer.parseInt, без создания исключений
+     * @return число или {@link #NOT_A_NUMBER}
+     */
+    static int parseAge(CharSequence value) {
+        if (value == null || value.length() == 0) {
+            return NOT_A_NUMBER;
+        }
+        int i = 0;
+        boolean negative = false;
+        char first = value.charAt(0);
+        if (first == '-' || first == '+') {
+            negative = first == '-';
+            i = 1;
+            if (value.length() == 1) {
+                return NOT_A_NUMBER;
+            }
+        }
+        long result = 0;
+        for (; i < value.length(); i++) {
+            int d = Character.digit(value.charAt(i), 10);
+            if (d < 0) {
+                return NOT_A_NUMBER;
+            }
+            result = result * 10 + d;
+            if (result > (long) Integer.MAX_VALUE + 1) {
+                return NOT_A_NUMBER;
+            }
+        }
+        if (!negative) {
+            return result > Integer.MAX_VALUE ? NOT_A_NUMBER : (int) result;
+        }
+        // Integer.MIN_VALUE занят под NOT_A_NUMBER; для возраста оба значения вне диапазона
+        return (int) -Math.min(result, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return true, если строка пуста или состоит только из пробельных символов (как trim().isEmpty())
+     */
+    static boolean isBlank(CharSequence value) {
+        if (value == null) {
+            return true;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Проверка по классу {@code [а-яА-ЯёЁa-zA-Z\s-]*}
+     */
+    static boolean isNameText(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!isLetter(c) && !isSpace(c) && c != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Проверка по классу {@code [а-яА-ЯёЁa-zA-Z0-9-]*}
+     */
+    static boolean isGroupText(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!isLetter(c) && !(c >= '0' && c <= '9') && c != '-') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Проверка по классу {@code \d*}
+     */
+    static boolean isDigits(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Кириллица а-я, А-Я, ё, Ё и латиница
+    private static boolean isLetter(char c) {
+        return (c >= 'а' && c <= 'я') || (c >= 'А' && c <= 'Я') || c == 'ё' || c == 'Ё'
+                || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    // Класс \s регулярных выражений Java
+    private static boolean isSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
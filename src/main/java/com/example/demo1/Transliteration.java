@@ -0,0 +1,93 @@
+package com.example.demo1;
+
+/**
+ * Приведение фамилий к общему виду для нечеткого поиска.
+ * Фамилия, набранная латиницей ("Ivanov", "Kovalyov", "Zaytsev"), переводится
+ * в кириллицу, а кириллица упрощается так, чтобы обе записи совпадали:
+ * регистр не учитывается, ё и э заменяются на е, й — на и, мягкий и твердый
+ * знаки, пробелы, дефисы и апострофы отбрасываются. Неоднозначности
+ * транслитерации (c, x, окончания -iy/-y) остаются на долю расстояния
+ * редактирования, с которым сравниваются ключи (см. {@link BkTree}).
+ */
+final class Transliteration {
+
+    // Сочетания латинских букв, проверяемые раньше одиночных, от длинных к коротким
+    private static final String[][] LATIN_GROUPS = {
+            {"shch", "щ"},
+            {"sch", "щ"},
+            {"zh", "ж"}, {"kh", "х"}, {"ts", "ц"}, {"tz", "ц"}, {"ch", "ч"}, {"sh", "ш"},
+            {"yu", "ю"}, {"ya", "я"}, {"yo", "е"}, {"ye", "е"},
+            {"ju", "ю"}, {"ja", "я"}, {"jo", "е"}, {"je", "е"},
+            {"ck", "к"}, {"ph", "ф"}, {"x", "кс"},
+    };
+
+    // Одиночные латинские буквы a..z; x и y переводятся раньше
+    private static final String LATIN_LETTERS = "абкдефгхииклмнопкрстуввкыз";
+
+    private Transliteration() {
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Строит ключ фамилии для нечеткого поиска
+     * @param surname фамилия кириллицей или латиницей, может быть null
+     * @return ключ из строчных кириллических букв; пустая строка, если букв нет
+     */
+    static String fold(String surname) {
+        if (surname == null || surname.isEmpty()) {
+            return "";
+        }
+        String s = surname.toLowerCase();
+        StringBuilder key = new StringBuilder(s.length() + 2);
+        int i = 0;
+        while (i < s.length()) {
+            char c = s.charAt(i);
+            if (c >= 'a' && c <= 'z') {
+                i = appendLatin(s, i, key);
+                continue;
+            }
+            switch (c) {
+                case 'ё', 'э' -> key.append('е');
+                case 'й' -> key.append('и');
+                case 'ь', 'ъ' -> { }
+                default -> {
+                    if (Character.isLetter(c)) {
+                        key.append(c);
+                    }
+                }
+            }
+            i++;
+        }
+        return key.toString();
+    }
+
+    /**
+     * Переводит латинскую букву или сочетание букв, начинающееся в позиции i
+     * @return позиция после переведенных букв
+     */
+    private static int appendLatin(String s, int i, StringBuilder key) {
+        for (String[] group : LATIN_GROUPS) {
+            if (s.startsWith(group[0], i)) {
+                key.append(group[1]);
+                return i + group[0].length();
+            }
+        }
+        char c = s.charAt(i);
+        if (c == 'y') {
+            // После гласной или в конце — й (как и), между согласной и гласной — мягкий знак, иначе ы
+            boolean afterVowel = i > 0 && isLatinVowel(s.charAt(i - 1));
+            boolean beforeVowel = i + 1 < s.length() && isLatinVowel(s.charAt(i + 1));
+            if (afterVowel || i + 1 == s.length()) {
+                key.append('и');
+            } else if (!beforeVowel) {
+                key.append('ы');
+            }
+        } else {
+            key.append(LATIN_LETTERS.charAt(c - 'a'));
+        }
+        return i + 1;
+    }
+
+    private static boolean isLatinVowel(char c) {
+        return "aeiouy".indexOf(c) >= 0;
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.demo1;
+
+import java.util.*;
+
+/**
+ * Индекс подстрок по триграммам для одного текстового поля.
+ * Для каждой триграммы нормализованного значения хранится отсортированный
+ * список идентификаторов записей (posting list). Кандидаты для запроса
+ * находятся пересечением списков всех триграмм запроса; окончательную
+ * проверку через contains выполняет вызывающий код.
+ */
+class TrigramIndex {
+
+    // Минимальная длина запроса, для которой индекс сужает поиск
+    static final int GRAM = 3;
+
+    private final Map<Long, PostingList> postings = new HashMap<>();
+
+    /**
+     * Добавляет запись в индекс
+     * @param id идентификатор записи
+     * @param value нормализованное значение поля
+     */
+    void add(int id, String value) {
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            postings.computeIfAbsent(key(value, i), k -> new PostingList()).add(id);
+        }
+    }
+
+    /**
+     * Удаляет запись из индекса
+     * @param id идентификатор записи
+     * @param value нормализованное значение поля, с которым запись была добавлена
+     */
+    void remove(int id, String value) {
+        for (int i = 0; i + GRAM <= value.length(); i++) {
+            Long key = key(value, i);
+            PostingList list = postings.get(key);
+            if (list != null) {
+                list.remove(id);
+                if (list.size == 0) {
+                    postings.remove(key);
+                }
+            }
+        }
+    }
+
+    /**
+     * Удаляет все записи из индекса
+     */
+    void clear() {
+        postings.clear();
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Находит записи, содержащие все триграммы запроса.
+     * @param query нормализованный запрос длиной не меньше {@link #GRAM}
+     * @return отсортированный по возрастанию массив идентификаторов-кандидатов
+     */
+    int[] candidates(String query) {
+        List<PostingList> lists = new ArrayList<>();
+        for (int i = 0; i + GRAM <= query.length(); i++) {
+            PostingList list = postings.get(key(query, i));
+            if (list == null) {
+                return new int[0];
+            }
+            lists.add(list);
+        }
+        // Пересечение начинается с самого короткого списка
+        lists.sort(Comparator.comparingInt(l -> l.size));
+        int[] result = Arrays.copyOf(lists.get(0).ids, lists.get(0).size);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] a, PostingList b) {
+        int[] out = new int[Math.min(a.length, b.size)];
+        int n = 0, i = 0, j = 0;
+        while (i < a.length && j < b.size) {
+            if (a[i] < b.ids[j]) i++;
+            else if (a[i] > b.ids[j]) j++;
+            else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    // Три символа UTF-16 упаковываются в одно число
+    private static Long key(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+    //-----------------------------------------------------------------------------------------------------------
+    /**
+     * Отсортированный список идентификаторов без повторов
+     */
+    static class PostingList {
+        int[] ids = new int[4];
+        int size;
+
+        void add(int id) {
+            // Идентификаторы обычно приходят по возрастанию, тогда вставка идет в конец
+            if (size > 0 && ids[size - 1] >= id) {
+                int pos = Arrays.binarySearch(ids, 0, size, id);
+                if (pos >= 0) return;
+                insertAt(-pos - 1, id);
+                return;
+            }
+            insertAt(size, id);
+        }
+
+        void remove(int id) {
+            int pos = Arrays.binarySearch(ids, 0, size, id);
+            if (pos >= 0) {
+                System.arraycopy(ids, pos + 1, ids, pos, size - pos - 1);
+                size--;
+            }
+        }
+
+        private void insertAt(int pos, int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            System.arraycopy(ids, pos, ids, pos + 1, size - pos);
+            ids[pos] = id;
+            size++;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 module com.example.demo1 {
     requires javafx.controls;
     requires javafx.fxml;
+    requires jdk.jfr;
+    requires jdk.httpserver;
 
 
     opens com.example.demo1 to javafx.fxml;